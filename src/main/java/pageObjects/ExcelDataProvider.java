@@ -0,0 +1,220 @@
+package pageObjects;
+
+import org.apache.poi.ss.usermodel.*;
+import utils.Timings;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test data read from Excel once per JVM (again only when the file's mtime/size changes),
+ * exposed as immutable sheets of rows indexed by column title. Safe to share across threads.
+ */
+public final class ExcelDataProvider {
+
+    private static final Map<String, CachedWorkbook> CACHE = new ConcurrentHashMap<>();
+
+    private ExcelDataProvider() {
+    }
+
+    public static SheetData sheet(String filePath, String sheetName) throws IOException {
+        SheetData sheet = workbook(filePath).sheets.get(sheetName.toLowerCase(Locale.ROOT));
+        if (sheet == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in " + filePath);
+        }
+        return sheet;
+    }
+
+    private static CachedWorkbook workbook(String filePath) throws IOException {
+        File file = new File(filePath).getAbsoluteFile();
+        long mtime = file.lastModified();
+        long size = file.length();
+
+        CachedWorkbook cached = CACHE.get(file.getPath());
+        if (cached != null && cached.mtime == mtime && cached.size == size) {
+            return cached;
+        }
+        // One parse per path even when several threads miss together
+        synchronized (ExcelDataProvider.class) {
+            cached = CACHE.get(file.getPath());
+            if (cached != null && cached.mtime == mtime && cached.size == size) {
+                return cached;
+            }
+            CachedWorkbook loaded = load(file, mtime, size);
+            CACHE.put(file.getPath(), loaded);
+            return loaded;
+        }
+    }
+
+    private static CachedWorkbook load(File file, long mtime, long size) throws IOException {
+        Map<String, SheetData> sheets = new LinkedHashMap<>();
+        try (Timings.Span ignored = Timings.start("excel load workbook");
+             FileInputStream fis = new FileInputStream(file);
+             Workbook workbook = WorkbookFactory.create(fis)) {
+            for (Sheet sheet : workbook) {
+                sheets.put(sheet.getSheetName().toLowerCase(Locale.ROOT), readSheet(sheet));
+            }
+        }
+        return new CachedWorkbook(mtime, size, sheets);
+    }
+
+    private static SheetData readSheet(Sheet sheet) {
+        List<String> headers = new ArrayList<>();
+        Row headerRow = sheet.getRow(0);
+        if (headerRow != null) {
+            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
+                Cell cell = headerRow.getCell(i);
+                headers.add(cell != null ? cell.toString() : "");
+            }
+        }
+
+        // Same traversal as InvokeColumns always used: physical row count, blank rows skipped
+        List<DataRow> rows = new ArrayList<>();
+        for (int i = 1; i < sheet.getPhysicalNumberOfRows(); i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) continue;
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            Map<String, String> texts = new LinkedHashMap<>();
+            for (int c = 0; c < headers.size(); c++) {
+                String key = headers.get(c).toLowerCase(Locale.ROOT);
+                if (key.isEmpty() || texts.containsKey(key)) continue;
+                Cell cell = row.getCell(c);
+                texts.put(key, cell != null ? cell.toString() : "");
+                values.put(key, cell != null ? typedValue(cell, cell.getCellType()) : null);
+            }
+            rows.add(new DataRow(values, texts));
+        }
+        return new SheetData(sheet.getSheetName(), headers, rows);
+    }
+
+    private static Object typedValue(Cell cell, CellType type) {
+        switch (type) {
+            case NUMERIC:
+                return DateUtil.isCellDateFormatted(cell) ? cell.getDateCellValue() : (Object) cell.getNumericCellValue();
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            case STRING:
+                return cell.getStringCellValue();
+            case FORMULA:
+                return typedValue(cell, cell.getCachedFormulaResultType());
+            default:
+                return null;
+        }
+    }
+
+    private static final class CachedWorkbook {
+        final long mtime;
+        final long size;
+        final Map<String, SheetData> sheets;
+
+        CachedWorkbook(long mtime, long size, Map<String, SheetData> sheets) {
+            this.mtime = mtime;
+            this.size = size;
+            this.sheets = sheets;
+        }
+    }
+
+    /** One sheet: header titles plus data rows (header row excluded). */
+    public static final class SheetData {
+        private final String name;
+        private final List<String> headers;
+        private final List<DataRow> rows;
+
+        SheetData(String name, List<String> headers, List<DataRow> rows) {
+            this.name = name;
+            this.headers = Collections.unmodifiableList(headers);
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public List<String> headers() {
+            return headers;
+        }
+
+        public List<DataRow> rows() {
+            return rows;
+        }
+
+        public DataRow row(int index) {
+            return rows.get(index);
+        }
+
+        /** Text of every row in the column, as {@link InvokeColumns#getColumnDataByTitle} returns it. */
+        public List<String> column(String columnTitle) {
+            boolean known = false;
+            for (String h : headers) {
+                if (h.equalsIgnoreCase(columnTitle)) {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known) {
+                throw new IllegalArgumentException("Column with title '" + columnTitle + "' not found");
+            }
+            List<String> column = new ArrayList<>(rows.size());
+            for (DataRow row : rows) {
+                column.add(row.getString(columnTitle));
+            }
+            return column;
+        }
+    }
+
+    /** A data row; column titles are matched case-insensitively. */
+    public static final class DataRow {
+        private final Map<String, Object> values;
+        private final Map<String, String> texts;
+
+        DataRow(Map<String, Object> values, Map<String, String> texts) {
+            this.values = Collections.unmodifiableMap(values);
+            this.texts = Collections.unmodifiableMap(texts);
+        }
+
+        private String key(String columnTitle) {
+            String key = columnTitle.toLowerCase(Locale.ROOT);
+            if (!texts.containsKey(key)) {
+                throw new IllegalArgumentException("Column with title '" + columnTitle + "' not found");
+            }
+            return key;
+        }
+
+        /** Cell text as POI's Cell.toString() renders it ("" for an empty cell). */
+        public String getString(String columnTitle) {
+            return texts.get(key(columnTitle));
+        }
+
+        /** Typed value: String, Double, Boolean, java.util.Date, or null for blank cells. */
+        public Object get(String columnTitle) {
+            return values.get(key(columnTitle));
+        }
+
+        public Double getNumber(String columnTitle) {
+            Object v = get(columnTitle);
+            if (v instanceof Number) return ((Number) v).doubleValue();
+            String text = getString(columnTitle).trim();
+            return text.isEmpty() ? null : Double.valueOf(text);
+        }
+
+        public Boolean getBoolean(String columnTitle) {
+            Object v = get(columnTitle);
+            if (v instanceof Boolean) return (Boolean) v;
+            String text = getString(columnTitle).trim();
+            return text.isEmpty() ? null : Boolean.valueOf(text);
+        }
+
+        public Map<String, String> asMap() {
+            return texts;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package pageObjects;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import utils.Timings;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Row-by-row reader for large .xlsx sheets built on POI's event API ({@link XSSFReader}).
+ *
+ * The sheet XML is pulled lazily one row at a time, only the requested columns are materialized,
+ * and strings are resolved through the read-only shared-strings table, so heap use does not grow
+ * with the number of rows. The first row is the header; each further row is returned as a map of
+ * header title to cell text, rendered like POI's Cell.toString(). Close the reader when done.
+ */
+public final class StreamingSheetReader implements Iterator<Map<String, String>>, AutoCloseable {
+
+    private final OPCPackage pkg;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final List<String> requestedTitles;
+
+    // Column index -> projected header title; resolved from the header row
+    private Map<Integer, String> projection;
+    private Map<String, String> next;
+    private boolean closed;
+
+    /** @param columnTitles titles to project (case-insensitive); none means every column */
+    public StreamingSheetReader(String filePath, String sheetName, String... columnTitles) throws IOException {
+        this.requestedTitles = new ArrayList<>();
+        for (String title : columnTitles) {
+            requestedTitles.add(title);
+        }
+        OPCPackage opened = null;
+        InputStream stream = null;
+        try (Timings.Span ignored = Timings.start("excel open sheet stream")) {
+            opened = OPCPackage.open(new File(filePath), PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(opened);
+            this.sharedStrings = new ReadOnlySharedStringsTable(opened);
+            this.styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                InputStream candidate = sheets.next();
+                if (sheets.getSheetName().equalsIgnoreCase(sheetName)) {
+                    stream = candidate;
+                    break;
+                }
+                candidate.close();
+            }
+            if (stream == null) {
+                throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in " + filePath);
+            }
+            this.xml = XMLHelper.newXMLInputFactory().createXMLStreamReader(stream);
+            this.sheetStream = stream;
+            this.pkg = opened;
+        } catch (OpenXML4JException | SAXException | XMLStreamException e) {
+            closeQuietly(stream, opened);
+            throw new IOException("Failed to open sheet '" + sheetName + "' in " + filePath + ": " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(stream, opened);
+            throw e;
+        }
+    }
+
+    /** Header titles of the projected columns, in sheet order (reads the header row if needed). */
+    public List<String> headers() {
+        ensureHeader();
+        return new ArrayList<>(projection.values());
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !closed) {
+            ensureHeader();
+            Map<Integer, String> row = readRow();
+            if (row != null) {
+                Map<String, String> values = new LinkedHashMap<>();
+                for (Map.Entry<Integer, String> col : projection.entrySet()) {
+                    String v = row.get(col.getKey());
+                    values.put(col.getValue(), v != null ? v : "");
+                }
+                next = values;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map<String, String> row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            xml.close();
+        } catch (XMLStreamException ignored) {
+            // closing anyway
+        }
+        closeQuietly(sheetStream, pkg);
+    }
+
+    private void ensureHeader() {
+        if (projection != null) return;
+        Map<Integer, String> header = readRow();
+        if (header == null) {
+            throw new IllegalArgumentException("Sheet has no header row");
+        }
+        projection = new LinkedHashMap<>();
+        if (requestedTitles.isEmpty()) {
+            header.forEach((idx, title) -> {
+                if (!title.isEmpty()) projection.put(idx, title);
+            });
+            return;
+        }
+        for (String title : requestedTitles) {
+            Integer found = null;
+            for (Map.Entry<Integer, String> h : header.entrySet()) {
+                if (h.getValue().equalsIgnoreCase(title)) {
+                    found = h.getKey();
+                    break;
+                }
+            }
+            if (found == null) {
+                close();
+                throw new IllegalArgumentException("Column with title '" + title + "' not found");
+            }
+            projection.put(found, header.get(found));
+        }
+        // Keep sheet order so output maps are stable regardless of request order
+        projection = new LinkedHashMap<>(new TreeMap<>(projection));
+    }
+
+    /** Pulls the next &lt;row&gt; and returns column index -> text (only projected columns once known). */
+    private Map<Integer, String> readRow() {
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                    return readCells();
+                }
+            }
+            close();
+            return null;
+        } catch (XMLStreamException e) {
+            close();
+            throw new RuntimeException("Failed to read sheet row: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<Integer, String> readCells() throws XMLStreamException {
+        Map<Integer, String> cells = new LinkedHashMap<>();
+        int column = -1;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                return cells;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(xml.getLocalName())) {
+                continue;
+            }
+            String ref = xml.getAttributeValue(null, "r");
+            column = ref != null ? columnIndex(ref) : column + 1;
+            String type = xml.getAttributeValue(null, "t");
+            String style = xml.getAttributeValue(null, "s");
+
+            boolean wanted = projection == null || projection.containsKey(column);
+            String raw = readCellValue(wanted);
+            if (wanted && raw != null) {
+                cells.put(column, render(raw, type, style));
+            }
+        }
+        return cells;
+    }
+
+    /** Consumes one &lt;c&gt; element; returns its &lt;v&gt; or inline &lt;t&gt; text (null when skipped/empty). */
+    private String readCellValue(boolean wanted) throws XMLStreamException {
+        StringBuilder text = null;
+        boolean inValue = false;
+        int depth = 1;
+        while (depth > 0 && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = xml.getLocalName();
+                inValue = wanted && ("v".equals(name) || "t".equals(name));
+                if (inValue && text == null) text = new StringBuilder();
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                inValue = false;
+            } else if (inValue && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                text.append(xml.getText());
+            }
+        }
+        return text == null ? null : text.toString();
+    }
+
+    private String render(String raw, String type, String style) {
+        if ("s".equals(type)) {
+            return sharedStrings.getItemAt(Integer.parseInt(raw.trim())).getString();
+        }
+        if ("inlineStr".equals(type) || "str".equals(type) || "e".equals(type)) {
+            return raw;
+        }
+        if ("b".equals(type)) {
+            return "1".equals(raw.trim()) ? "TRUE" : "FALSE";
+        }
+        if (raw.isEmpty()) {
+            return "";
+        }
+        double number = Double.parseDouble(raw);
+        if (style != null && styles != null) {
+            XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+            if (cellStyle != null
+                    && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString())
+                    && DateUtil.isValidExcelDate(number)) {
+                // Same rendering Cell.toString() uses for date cells
+                return new SimpleDateFormat("dd-MMM-yyyy", Locale.ROOT).format(DateUtil.getJavaDate(number));
+            }
+        }
+        return Double.toString(number);
+    }
+
+    private static int columnIndex(String cellRef) {
+        int col = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char ch = cellRef.charAt(i);
+            if (ch < 'A' || ch > 'Z') break;
+            col = col * 26 + (ch - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    private static void closeQuietly(InputStream stream, OPCPackage pkg) {
+        try {
+            if (stream != null) stream.close();
+        } catch (IOException ignored) {
+            // nothing to do
+        }
+        if (pkg != null) {
+            // Opened read-only: revert instead of close so nothing is written back
+            pkg.revert();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Metadata learned from passing runs, kept next to a baseline as {@code <baseline>.png.json}:
+ * perceptual hashes of crops that already passed, with their score and match location.
+ *
+ * Sidecars are versioned with their baselines, so every checkout and CI agent starts from the same
+ * learned state. They are only rewritten in record mode ({@code visual.record=true}, or the
+ * learner's own switch); ordinary runs read them.
+ *
+ * The sidecar records a CRC of the baseline file; when the baseline is replaced the learned
+ * entries are discarded. Sidecars are cached per path and rewritten atomically.
+ */
+final class BaselineSidecar {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaselineSidecar.class);
+
+    private static final Map<String, BaselineSidecar> SIDECARS = new ConcurrentHashMap<>();
+
+    static final int MAX_KNOWN_GOOD = 8;
+
+    private final Path file;
+    private final long baselineMtime;
+    private final long baselineSize;
+    private final JSONObject root;
+
+    private BaselineSidecar(Path file, long baselineMtime, long baselineSize, JSONObject root) {
+        this.file = file;
+        this.baselineMtime = baselineMtime;
+        this.baselineSize = baselineSize;
+        this.root = root;
+    }
+
+    /** Whether the learner switched by {@code property} may write sidecars; defaults to {@code visual.record}. */
+    static boolean recording(String property) {
+        return Boolean.parseBoolean(System.getProperty(property, System.getProperty("visual.record", "false")));
+    }
+
+    static BaselineSidecar forBaseline(String baselinePath) {
+        File baseline = new File(baselinePath).getAbsoluteFile();
+        String key = baseline.getPath();
+        long mtime = baseline.lastModified();
+        long size = baseline.length();
+        // One instance per baseline even under parallel workers, or their saves would overwrite each other's sections
+        return SIDECARS.compute(key, (k, current) ->
+                current != null && current.baselineMtime == mtime && current.baselineSize == size
+                        ? current : load(Paths.get(k + ".json"), crc(baseline.toPath()), mtime, size));
+    }
+
+    private static BaselineSidecar load(Path file, String crc, long mtime, long size) {
+        JSONObject root = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                root = new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ignoring unreadable sidecar {}: {}", file, e.getMessage());
+            }
+        }
+        if (root == null || !crc.equals(root.optString("baselineCrc"))) {
+            // New or replaced baseline: nothing learned yet
+            root = new JSONObject();
+            root.put("baselineCrc", crc);
+        }
+        return new BaselineSidecar(file, mtime, size, root);
+    }
+
+    synchronized List<KnownGood> knownGood() {
+        List<KnownGood> list = new ArrayList<>();
+        JSONArray arr = root.optJSONArray("knownGood");
+        if (arr != null) {
+            for (int i = 0; i < arr.length(); i++) {
+                list.add(KnownGood.fromJson(arr.getJSONObject(i)));
+            }
+        }
+        return list;
+    }
+
+    /** Adds (or refreshes) a passing crop; the oldest entries beyond {@link #MAX_KNOWN_GOOD} are dropped. */
+    synchronized void addKnownGood(KnownGood entry) {
+        JSONArray arr = root.optJSONArray("knownGood");
+        if (arr != null && arr.length() > 0
+                && PerceptualHash.toHex(entry.hash).equals(arr.getJSONObject(0).optString("dhash"))) {
+            return; // already the most recent entry; avoid rewriting the file on every pass
+        }
+        JSONArray updated = new JSONArray();
+        updated.put(entry.toJson());
+        if (arr != null) {
+            for (int i = 0; i < arr.length() && updated.length() < MAX_KNOWN_GOOD; i++) {
+                if (!PerceptualHash.toHex(entry.hash).equals(arr.getJSONObject(i).optString("dhash"))) {
+                    updated.put(arr.getJSONObject(i));
+                }
+            }
+        }
+        root.put("knownGood", updated);
+        save();
+    }
+
+    synchronized JSONObject section(String name) {
+        return root.optJSONObject(name);
+    }
+
+    synchronized void putSection(String name, JSONObject value) {
+        root.put(name, value);
+        save();
+    }
+
+    private void save() {
+        try {
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(tmp, root.toString(2).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write sidecar {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String crc(Path baseline) {
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(Files.readAllBytes(baseline));
+            return Long.toHexString(crc.getValue());
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    /** A crop that passed: its dHash, haystack size, score and match location. */
+    static final class KnownGood {
+        final long hash;
+        final int haystackWidth;
+        final int haystackHeight;
+        final double score;
+        final int x, y, width, height;
+
+        KnownGood(long hash, int haystackWidth, int haystackHeight, double score, int x, int y, int width, int height) {
+            this.hash = hash;
+            this.haystackWidth = haystackWidth;
+            this.haystackHeight = haystackHeight;
+            this.score = score;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        JSONObject toJson() {
+            JSONObject o = new JSONObject();
+            o.put("dhash", PerceptualHash.toHex(hash));
+            o.put("haystack", new JSONArray().put(haystackWidth).put(haystackHeight));
+            o.put("score", score);
+            o.put("location", new JSONArray().put(x).put(y).put(width).put(height));
+            return o;
+        }
+
+        static KnownGood fromJson(JSONObject o) {
+            JSONArray hay = o.getJSONArray("haystack");
+            JSONArray loc = o.getJSONArray("location");
+            return new KnownGood(PerceptualHash.fromHex(o.getString("dhash")), hay.getInt(0), hay.getInt(1),
+                    o.getDouble("score"), loc.getInt(0), loc.getInt(1), loc.getInt(2), loc.getInt(3));
+        }
+    }
+}
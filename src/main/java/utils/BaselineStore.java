@@ -0,0 +1,279 @@
+package utils;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Content-addressed baseline repository. Images are stored once under
+ * {@code objects/<2 hex>/<sha-256>.png}, and {@code index.properties} maps
+ * {@code element|browser|viewport|dpr} to a hash, so the same crop shared by several browsers,
+ * viewports or DPRs is one file. Object files never change, which keeps {@link TemplateCache}
+ * and the baseline sidecars valid for as long as the hash is referenced.
+ *
+ * {@link #resolve} falls back to the loose PNG the caller passes when the store has no entry, so an
+ * empty store changes nothing. Passing crops are promoted with -Dvisual.baseline.promote=true;
+ * objects and index are written to a temp file and moved into place atomically.
+ *
+ * Root: {@code visual.baseline.store} (default src/main/resources/baselines).
+ */
+public final class BaselineStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaselineStore.class);
+
+    static {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    private static final BaselineStore SHARED =
+            new BaselineStore(Paths.get(System.getProperty("visual.baseline.store", "src/main/resources/baselines")));
+
+    public static BaselineStore shared() {
+        return SHARED;
+    }
+
+    public static boolean promoteOnPass() {
+        return Boolean.parseBoolean(System.getProperty("visual.baseline.promote", "false"));
+    }
+
+    private final Path root;
+    private final Path indexFile;
+    private final Properties index = new Properties();
+    private long indexMtime = -1;
+
+    public BaselineStore(Path root) {
+        this.root = root;
+        this.indexFile = root.resolve("index.properties");
+    }
+
+    /**
+     * Path of the baseline for {@code key}: the exact entry, else the element's
+     * {@code element|*|*|*} default, else {@code legacyPath}.
+     */
+    public synchronized String resolve(Key key, String legacyPath) {
+        reloadIfChanged();
+        String hash = index.getProperty(key.toString());
+        if (hash == null) {
+            hash = index.getProperty(Key.anyContext(key.element).toString());
+        }
+        if (hash != null) {
+            Path object = objectPath(hash);
+            if (Files.isRegularFile(object)) {
+                return object.toString();
+            }
+            logger.warn("Index entry {} points at missing object {}", key, hash);
+        }
+        return legacyPath;
+    }
+
+    /** Stores {@code png} (if new) and points {@code key} at it. Returns the object path. */
+    public synchronized Path promote(Key key, byte[] png) {
+        String hash = sha256(png);
+        Path object = objectPath(hash);
+        try {
+            if (!Files.isRegularFile(object)) {
+                writeAtomically(object, png);
+            }
+            reloadIfChanged();
+            if (!hash.equals(index.getProperty(key.toString()))) {
+                Properties updated = new Properties();
+                updated.putAll(index);
+                updated.setProperty(key.toString(), hash);
+                Files.createDirectories(root);
+                Path tmp = Files.createTempFile(root, "index", ".tmp");
+                try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    updated.store(out, "element|browser|viewport|dpr = sha-256 of objects/<2>/<hash>.png");
+                }
+                Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                index.clear();
+                index.putAll(updated);
+                indexMtime = indexFile.toFile().lastModified();
+                logger.info("Promoted {} -> {}", key, hash.substring(0, 12));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not promote baseline " + key + ": " + e.getMessage(), e);
+        }
+        return object;
+    }
+
+    /** Encodes {@code image} as PNG and promotes it. */
+    public Path promote(Key key, Mat image) {
+        MatOfByte buf = new MatOfByte();
+        try {
+            if (!Imgcodecs.imencode(".png", image, buf)) {
+                throw new RuntimeException("Could not encode baseline " + key);
+            }
+            return promote(key, buf.toArray());
+        } finally {
+            buf.release();
+        }
+    }
+
+    /** Imports every PNG of {@code dir} under {@code context}, the file name being the element. */
+    public int importLegacy(Path dir, Context context) throws IOException {
+        int imported = 0;
+        try (DirectoryStream<Path> pngs = Files.newDirectoryStream(dir, "*.png")) {
+            for (Path png : pngs) {
+                promote(context.key(elementName(png.toString())), Files.readAllBytes(png));
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    /** Index entries, distinct objects and the bytes deduplication saves. */
+    public synchronized String summary() {
+        reloadIfChanged();
+        Set<String> distinct = new HashSet<>();
+        long referenced = 0, stored = 0;
+        for (String key : index.stringPropertyNames()) {
+            String hash = index.getProperty(key);
+            long size = objectPath(hash).toFile().length();
+            referenced += size;
+            if (distinct.add(hash)) stored += size;
+        }
+        return String.format(Locale.ROOT, "Baseline store %s: %d entries, %d objects, %d KB stored for %d KB referenced",
+                root, index.size(), distinct.size(), stored / 1024, referenced / 1024);
+    }
+
+    Path objectPath(String hash) {
+        return root.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash + ".png");
+    }
+
+    private void reloadIfChanged() {
+        long mtime = indexFile.toFile().lastModified(); // 0 when missing
+        if (mtime == indexMtime) return;
+        index.clear();
+        if (mtime != 0) {
+            try (Reader in = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                index.load(in);
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable index {}: {}", indexFile, e.getMessage());
+            }
+        }
+        indexMtime = mtime;
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Decodes an image file like imread (empty Mat when missing or not an image). Templates are
+     * decoded once and then cached by {@link TemplateCache}, so a plain read is all that is needed.
+     */
+    public static Mat read(String path, int flags) {
+        byte[] encoded;
+        try {
+            encoded = Files.readAllBytes(Paths.get(path));
+        } catch (IOException e) {
+            return new Mat();
+        }
+        if (encoded.length == 0) {
+            return new Mat();
+        }
+        MatOfByte buf = new MatOfByte(encoded);
+        try {
+            return Imgcodecs.imdecode(buf, flags);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /** Element name of a legacy baseline path: its file name without extension. */
+    public static String elementName(String path) {
+        String name = Paths.get(path).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Browser, viewport (CSS px) and DPR a baseline was captured with. */
+    public static final class Context {
+        public final String browser;
+        public final String viewport;
+        public final String dpr;
+
+        public Context(String browser, int viewportWidth, int viewportHeight, double dpr) {
+            this.browser = browser.toLowerCase(Locale.ROOT);
+            this.viewport = viewportWidth + "x" + viewportHeight;
+            this.dpr = String.format(Locale.ROOT, "%.2f", dpr);
+        }
+
+        public Key key(String element) {
+            return new Key(element, browser, viewport, dpr);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Context context(WebDriver driver) {
+        List<Object> metrics = (List<Object>) ((JavascriptExecutor) driver).executeScript(
+                "return [window.innerWidth, window.innerHeight, window.devicePixelRatio || 1];");
+        WebDriver raw = PageStability.unwrap(driver);
+        String browser = raw instanceof HasCapabilities
+                ? ((HasCapabilities) raw).getCapabilities().getBrowserName() : "unknown";
+        return new Context(browser, ((Number) metrics.get(0)).intValue(), ((Number) metrics.get(1)).intValue(),
+                ((Number) metrics.get(2)).doubleValue());
+    }
+
+    /** Index key {@code element|browser|viewport|dpr}. */
+    public static final class Key {
+        public final String element;
+        public final String browser;
+        public final String viewport;
+        public final String dpr;
+
+        Key(String element, String browser, String viewport, String dpr) {
+            this.element = element;
+            this.browser = browser;
+            this.viewport = viewport;
+            this.dpr = dpr;
+        }
+
+        static Key anyContext(String element) {
+            return new Key(element, "*", "*", "*");
+        }
+
+        @Override
+        public String toString() {
+            return element + "|" + browser + "|" + viewport + "|" + dpr;
+        }
+    }
+}
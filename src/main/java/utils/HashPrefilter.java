@@ -0,0 +1,90 @@
+package utils;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap pass check in front of template matching: an element crop whose dHash is within
+ * {@code visual.phash.distance} bits (default 4) of a crop that already passed against the same
+ * baseline, at the same size, passes with that run's score and location (see
+ * {@link VisualAssert#matchTemplate(org.opencv.core.Mat, String, VisualAssert.SearchMode, double)}).
+ * 64 bits say too little about a whole screenshot, so full-frame callers only use the hit as the
+ * place to confirm with one correlation ({@link OpenCVUtil}).
+ *
+ * Known-good hashes live in the baseline's versioned sidecar ({@link BaselineSidecar}) and are
+ * recorded from passing matches only in record mode (-Dvisual.record=true, or
+ * -Dvisual.phash.learn=true for this learner alone); the refreshed sidecars are then committed with
+ * the baselines. Disable lookups with -Dvisual.phash.enabled=false.
+ */
+public final class HashPrefilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashPrefilter.class);
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private HashPrefilter() {
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("visual.phash.enabled", "true"));
+    }
+
+    static int maxDistance() {
+        return Integer.getInteger("visual.phash.distance", 4);
+    }
+
+    /** Cached result for a crop that matches a known-good hash with a score of at least {@code threshold}, else null. */
+    static VisualAssert.TemplateResult lookup(long hash, Mat haystack, String baselinePath, double threshold) {
+        BaselineSidecar.KnownGood best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (BaselineSidecar.KnownGood kg : BaselineSidecar.forBaseline(baselinePath).knownGood()) {
+            if (kg.haystackWidth != haystack.cols() || kg.haystackHeight != haystack.rows() || kg.score < threshold) {
+                continue;
+            }
+            int d = PerceptualHash.distance(hash, kg.hash);
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = kg;
+            }
+        }
+        if (best == null || bestDistance > maxDistance()) {
+            MISSES.incrementAndGet();
+            return null;
+        }
+        HITS.incrementAndGet();
+        logger.info("{}: known-good crop (distance {}), cached score {}", baselinePath, bestDistance, best.score);
+        Point topLeft = new Point(best.x, best.y);
+        return new VisualAssert.TemplateResult(best.score, topLeft, new Rect(best.x, best.y, best.width, best.height));
+    }
+
+    /** Records a passing full match so the next identical crop can skip it. */
+    static void learn(long hash, Mat haystack, String baselinePath, VisualAssert.TemplateResult result) {
+        if (!BaselineSidecar.recording("visual.phash.learn")) {
+            return;
+        }
+        Rect r = result.location;
+        BaselineSidecar.forBaseline(baselinePath).addKnownGood(new BaselineSidecar.KnownGood(hash,
+                haystack.cols(), haystack.rows(), result.score, r.x, r.y, r.width, r.height));
+    }
+
+    public static long hits() {
+        return HITS.get();
+    }
+
+    public static long misses() {
+        return MISSES.get();
+    }
+
+    public static String summary() {
+        long hits = HITS.get();
+        long total = hits + MISSES.get();
+        return String.format("pHash prefilter: %d hits / %d lookups (%.0f%%)", hits, total,
+                total == 0 ? 0.0 : 100.0 * hits / total);
+    }
+}
@@ -0,0 +1,296 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Single-pass HTML reducer for locator repair prompts. Drops subtrees that never hold a locator
+ * target (head, svg, style, script, noscript, template), comments and hidden inputs, keeps only
+ * locator-relevant attributes, collapses whitespace and leaves out elements that end up empty, so
+ * what remains is the form controls, links and text with their enclosing structure.
+ *
+ * Works on the raw markup without building a DOM; unbalanced markup degrades to a looser output
+ * rather than an error.
+ */
+public final class HtmlCompactor {
+
+    private static final Set<String> DROPPED_SUBTREES = new HashSet<>(Arrays.asList(
+            "head", "svg", "style", "script", "noscript", "template", "iframe"));
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+    // Kept even when empty, since they are what locators point at
+    private static final Set<String> TARGET_ELEMENTS = new HashSet<>(Arrays.asList(
+            "input", "button", "select", "textarea", "option", "a", "img", "label", "form"));
+    private static final Set<String> KEPT_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            "id", "name", "class", "type", "placeholder", "role", "aria-label", "aria-labelledby", "for",
+            "href", "alt", "title", "value", "data-testid", "action"));
+
+    // Values a locator can match on exactly; never cut, or the model is shown values the DOM does not have
+    private static final Set<String> EXACT_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            "id", "name", "class", "type", "role", "for", "data-testid", "aria-labelledby"));
+
+    private static final int MAX_ATTRIBUTE = 80;
+    private static final int MAX_TEXT = 80;
+
+    private HtmlCompactor() {
+    }
+
+    public static Result compact(String html) {
+        long start = System.nanoTime();
+        String out = new Pass(html).run();
+        long nanos = System.nanoTime() - start;
+        Timings.record("html compact", nanos);
+        return new Result(out, html.length(), out.length(), nanos);
+    }
+
+    /** Compacted markup plus what it saved. */
+    public static final class Result {
+        public final String html;
+        public final int inputChars;
+        public final int outputChars;
+        public final long elapsedNanos;
+
+        Result(String html, int inputChars, int outputChars, long elapsedNanos) {
+            this.html = html;
+            this.inputChars = inputChars;
+            this.outputChars = outputChars;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String summary() {
+            return String.format(Locale.ROOT, "HTML compacted %d -> %d chars (%.1f%%) in %.2f ms",
+                    inputChars, outputChars, inputChars == 0 ? 0.0 : 100.0 * outputChars / inputChars,
+                    elapsedNanos / 1_000_000.0);
+        }
+    }
+
+    /** One scan over the input; open tags are written only once the element turns out to have content. */
+    private static final class Pass {
+        private final String in;
+        private final StringBuilder out;
+        private final List<Frame> open = new ArrayList<>();
+        private int pos;
+
+        Pass(String in) {
+            this.in = in;
+            this.out = new StringBuilder(Math.max(16, in.length() / 8));
+        }
+
+        String run() {
+            int n = in.length();
+            while (pos < n) {
+                int lt = in.indexOf('<', pos);
+                if (lt < 0) {
+                    text(pos, n);
+                    break;
+                }
+                text(pos, lt);
+                pos = lt;
+                if (in.startsWith("<!--", pos)) {
+                    int end = in.indexOf("-->", pos + 4);
+                    pos = end < 0 ? n : end + 3;
+                } else if (in.startsWith("</", pos)) {
+                    closeTag();
+                } else if (pos + 1 < n && (in.charAt(pos + 1) == '!' || in.charAt(pos + 1) == '?')) {
+                    int end = in.indexOf('>', pos);
+                    pos = end < 0 ? n : end + 1;
+                } else if (pos + 1 < n && Character.isLetter(in.charAt(pos + 1))) {
+                    openTag();
+                } else {
+                    text(pos, pos + 1); // stray '<'
+                    pos++;
+                }
+            }
+            // Unclosed elements that did get content still need their end tags
+            for (int i = open.size() - 1; i >= 0; i--) {
+                Frame f = open.get(i);
+                if (f.written) out.append("</").append(f.name).append('>');
+            }
+            return out.toString();
+        }
+
+        private void openTag() {
+            int nameStart = pos + 1;
+            int i = nameStart;
+            while (i < in.length() && !isTagNameEnd(in.charAt(i))) i++;
+            String name = in.substring(nameStart, i).toLowerCase(Locale.ROOT);
+            StringBuilder attrs = new StringBuilder();
+            boolean hiddenInput = false;
+
+            // Attributes: name[=value], value quoted or bare
+            int n = in.length();
+            boolean selfClosing = false;
+            while (i < n) {
+                char c = in.charAt(i);
+                if (c == '>') {
+                    i++;
+                    break;
+                }
+                if (c == '/' && i + 1 < n && in.charAt(i + 1) == '>') {
+                    selfClosing = true;
+                    i += 2;
+                    break;
+                }
+                if (Character.isWhitespace(c) || c == '/') {
+                    i++;
+                    continue;
+                }
+                int attrStart = i;
+                while (i < n && !isAttrNameEnd(in.charAt(i))) i++;
+                String attr = in.substring(attrStart, i).toLowerCase(Locale.ROOT);
+                while (i < n && Character.isWhitespace(in.charAt(i))) i++;
+                String value = null;
+                if (i < n && in.charAt(i) == '=') {
+                    i++;
+                    while (i < n && Character.isWhitespace(in.charAt(i))) i++;
+                    if (i < n && (in.charAt(i) == '"' || in.charAt(i) == '\'')) {
+                        char q = in.charAt(i);
+                        int end = in.indexOf(q, i + 1);
+                        if (end < 0) end = n;
+                        value = in.substring(i + 1, end);
+                        i = Math.min(n, end + 1);
+                    } else {
+                        int valueStart = i;
+                        while (i < n && !Character.isWhitespace(in.charAt(i)) && in.charAt(i) != '>') i++;
+                        value = in.substring(valueStart, i);
+                    }
+                }
+                if (attr.equals("type") && "hidden".equalsIgnoreCase(value)) {
+                    hiddenInput = true;
+                }
+                if (KEPT_ATTRIBUTES.contains(attr) && value != null && !value.isEmpty()) {
+                    attrs.append(' ').append(attr).append("=\"").append(shorten(attr, value)).append('"');
+                }
+            }
+            pos = i;
+
+            if (DROPPED_SUBTREES.contains(name)) {
+                if (!selfClosing) skipSubtree(name);
+                return;
+            }
+            if (VOID_ELEMENTS.contains(name) || selfClosing) {
+                if (TARGET_ELEMENTS.contains(name) && !hiddenInput) {
+                    flush();
+                    out.append('<').append(name).append(attrs).append('>');
+                }
+                return;
+            }
+            open.add(new Frame(name, attrs.toString()));
+        }
+
+        private void closeTag() {
+            int end = in.indexOf('>', pos);
+            String name = in.substring(pos + 2, end < 0 ? in.length() : end).trim().toLowerCase(Locale.ROOT);
+            pos = end < 0 ? in.length() : end + 1;
+            // Pop to the matching element; anything opened inside it without a close tag ends here too
+            for (int i = open.size() - 1; i >= 0; i--) {
+                if (open.get(i).name.equals(name)) {
+                    while (open.size() > i) {
+                        Frame f = open.remove(open.size() - 1);
+                        if (!f.written && TARGET_ELEMENTS.contains(f.name)) {
+                            flushThrough(f);
+                        }
+                        if (f.written) out.append("</").append(f.name).append('>');
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void text(int from, int to) {
+            if (from >= to) return;
+            StringBuilder collapsed = new StringBuilder();
+            boolean space = false;
+            for (int i = from; i < to && collapsed.length() <= MAX_TEXT; i++) {
+                char c = in.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    space = collapsed.length() > 0;
+                } else {
+                    if (space) collapsed.append(' ');
+                    collapsed.append(c);
+                    space = false;
+                }
+            }
+            if (collapsed.length() == 0) return;
+            if (collapsed.length() > MAX_TEXT) {
+                collapsed.setLength(MAX_TEXT);
+                collapsed.append("...");
+            } else if (Character.isWhitespace(in.charAt(to - 1))) {
+                collapsed.append(' '); // keeps "text <a>" from becoming "text<a>"
+            }
+            flush();
+            out.append(collapsed);
+        }
+
+        private void skipSubtree(String name) {
+            // Same-name nesting (svg in svg) is rare enough to treat the first close tag as the end
+            int end = indexOfIgnoreCase("</" + name, pos);
+            if (end < 0) {
+                pos = in.length();
+                return;
+            }
+            int gt = in.indexOf('>', end);
+            pos = gt < 0 ? in.length() : gt + 1;
+        }
+
+        /** Writes the open tags of all pending ancestors, since something inside them is being kept. */
+        private void flush() {
+            for (Frame f : open) {
+                if (!f.written) {
+                    out.append('<').append(f.name).append(f.attrs).append('>');
+                    f.written = true;
+                }
+            }
+        }
+
+        private void flushThrough(Frame target) {
+            flush();
+            out.append('<').append(target.name).append(target.attrs).append('>');
+            target.written = true;
+        }
+
+        private int indexOfIgnoreCase(String needle, int from) {
+            int n = in.length() - needle.length();
+            for (int i = from; i <= n; i++) {
+                if (in.regionMatches(true, i, needle, 0, needle.length())) return i;
+            }
+            return -1;
+        }
+
+        private static boolean isTagNameEnd(char c) {
+            return Character.isWhitespace(c) || c == '>' || c == '/';
+        }
+
+        private static boolean isAttrNameEnd(char c) {
+            return Character.isWhitespace(c) || c == '=' || c == '>' || c == '/';
+        }
+
+        /** Free text (title, placeholder, href, ...) is capped; locator attributes are kept whole. */
+        private static String shorten(String attr, String value) {
+            String v = value;
+            if (attr.equals("href")) {
+                int query = v.indexOf('?');
+                if (query >= 0) v = v.substring(0, query);
+            }
+            if (!EXACT_ATTRIBUTES.contains(attr) && v.length() > MAX_ATTRIBUTE) {
+                v = v.substring(0, MAX_ATTRIBUTE) + "...";
+            }
+            return v.replace("\"", "&quot;");
+        }
+    }
+
+    private static final class Frame {
+        final String name;
+        final String attrs;
+        boolean written;
+
+        Frame(String name, String attrs) {
+            this.name = name;
+            this.attrs = attrs;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Repairs XPaths that no longer match any element, in three tiers:
+ *  1. the on-disk cache of earlier repairs, keyed by page and original XPath
+ *     ({@code locator.cache.file}, default target/healed-locators.properties);
+ *  2. a local heuristic that scores the page's visible elements against the attributes named in the
+ *     broken XPath (so {@code //input[@class='username']} finds the input whose name is "username");
+ *  3. the {@link LocatorResolver} named by {@code locator.resolver.class}, if any.
+ *
+ * An XPath that still matches something is never repaired, however slow the element is to become
+ * usable. A repair is used only when its XPath differs from the original and matches exactly the
+ * chosen element; it is then cached for later runs. Disable with -Dlocator.heal=false.
+ */
+public final class LocatorHealer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocatorHealer.class);
+
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("locator.cache.file", "target/healed-locators.properties"));
+    private static final double MIN_SCORE = Double.parseDouble(System.getProperty("locator.heal.minScore", "0.7"));
+    // Best candidate must beat the runner-up by this much, otherwise the repair is a guess
+    private static final double MIN_MARGIN = 0.05;
+
+    // Attributes worth matching on and building replacement XPaths from, most stable first
+    private static final String[] LOCATOR_ATTRIBUTES =
+            {"id", "name", "placeholder", "aria-label", "data-testid", "title", "alt", "type", "class"};
+
+    private static final Pattern EQUALS = Pattern.compile("@([\\w-]+)\\s*=\\s*(['\"])(.*?)\\2");
+    private static final Pattern CONTAINS = Pattern.compile("contains\\(\\s*@([\\w-]+)\\s*,\\s*(['\"])(.*?)\\2\\s*\\)");
+    private static final Pattern TEXT = Pattern.compile("(?:text\\(\\)|normalize-space\\(\\s*\\)|\\.)\\s*[,=]\\s*(['\"])(.*?)\\1");
+    private static final Pattern TAG = Pattern.compile("^([a-zA-Z][\\w-]*|\\*)");
+
+    // Visible elements of the wanted tag plus the usual interactive ones, with their locator attributes
+    private static final String COLLECT_CANDIDATES =
+            "var tag = arguments[0], keep = arguments[1], out = [];" +
+            "var sel = 'input,button,select,textarea,a,img,h1,h2,h3,h4,h5,h6,[role]' + (tag === '*' ? '' : ',' + tag);" +
+            "var els = document.querySelectorAll(sel);" +
+            "for (var i = 0; i < els.length && out.length < 500; i++) {" +
+            "  var e = els[i], r = e.getBoundingClientRect();" +
+            "  if (r.width === 0 && r.height === 0) continue;" +
+            "  var c = {element: e, tag: e.tagName.toLowerCase(), text: (e.innerText || '').trim().substring(0, 80)};" +
+            "  for (var k = 0; k < keep.length; k++) { var v = e.getAttribute(keep[k]); if (v !== null) c[keep[k]] = v; }" +
+            "  out.push(c);" +
+            "}" +
+            "return out;";
+
+    private static final Properties CACHE = new Properties();
+    private static boolean cacheLoaded;
+    private static volatile LocatorResolver resolver;
+    private static volatile boolean resolverLoaded;
+
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+    private static final AtomicLong HEURISTIC = new AtomicLong();
+    private static final AtomicLong RESOLVED = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+
+    private LocatorHealer() {
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("locator.heal", "true"));
+    }
+
+    /** The cached repair for {@code xpath} on {@code page}, or null. */
+    public static synchronized String cached(String page, String xpath) {
+        loadCache();
+        String repaired = CACHE.getProperty(key(page, xpath));
+        return xpath.equals(repaired) ? null : repaired;
+    }
+
+    /** Forgets a cached repair that stopped working. */
+    public static synchronized void invalidate(String page, String xpath) {
+        loadCache();
+        if (CACHE.remove(key(page, xpath)) != null) {
+            logger.warn("Dropped stale locator repair for {} on {}", xpath, page);
+            saveCache();
+        }
+    }
+
+    /**
+     * Finds the element {@code xpath} was meant to match on {@code page}: cached repair first, then
+     * the heuristic, then the configured resolver. When {@code xpath} itself matches, that element is
+     * returned and nothing is repaired. Throws NoSuchElementException when none works.
+     */
+    public static WebElement heal(WebDriver driver, String page, String xpath) {
+        List<WebElement> original = driver.findElements(By.xpath(xpath));
+        if (!original.isEmpty()) {
+            // Not broken, just not ready; a repair would point somewhere else
+            invalidate(page, xpath);
+            return original.get(0);
+        }
+
+        String cachedXPath = cached(page, xpath);
+        if (cachedXPath != null) {
+            List<WebElement> found = driver.findElements(By.xpath(cachedXPath));
+            if (found.size() == 1) {
+                CACHE_HITS.incrementAndGet();
+                return found.get(0);
+            }
+            invalidate(page, xpath);
+        }
+
+        Repair repair;
+        try (Timings.Span ignored = Timings.start("locator heal heuristic")) {
+            repair = heuristic(driver, xpath);
+        }
+        if (repair != null) {
+            HEURISTIC.incrementAndGet();
+        } else {
+            try (Timings.Span ignored = Timings.start("locator heal resolver")) {
+                repair = resolve(driver, page, xpath);
+            }
+            if (repair != null) {
+                RESOLVED.incrementAndGet();
+            }
+        }
+        if (repair != null && repair.xpath.equals(xpath)) {
+            repair = null;
+        }
+        if (repair == null) {
+            FAILED.incrementAndGet();
+            throw new NoSuchElementException("No element for " + xpath + " on " + page + " and no usable repair");
+        }
+        logger.warn("Healed locator on {}: {} -> {} (score {})", page, xpath, repair.xpath,
+                String.format(Locale.ROOT, "%.2f", repair.score));
+        synchronized (LocatorHealer.class) {
+            loadCache();
+            CACHE.setProperty(key(page, xpath), repair.xpath);
+            saveCache();
+        }
+        return repair.element;
+    }
+
+    public static String summary() {
+        return String.format("Locator repairs: %d cached, %d heuristic, %d resolver, %d failed",
+                CACHE_HITS.get(), HEURISTIC.get(), RESOLVED.get(), FAILED.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Repair heuristic(WebDriver driver, String xpath) {
+        Expected expected = Expected.parse(xpath);
+        if (expected.predicates.isEmpty()) {
+            return null; // positional XPath: nothing to compare against
+        }
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) ((JavascriptExecutor) driver)
+                .executeScript(COLLECT_CANDIDATES, expected.tag, Arrays.asList(LOCATOR_ATTRIBUTES));
+
+        Map<String, Object> best = null;
+        double bestScore = 0, secondScore = 0;
+        for (Map<String, Object> candidate : candidates) {
+            double score = expected.score(candidate);
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = candidate;
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+        if (best == null || bestScore < MIN_SCORE || bestScore - secondScore < MIN_MARGIN) {
+            logger.info("No confident heuristic repair for {} (best {}, runner-up {})", xpath,
+                    String.format(Locale.ROOT, "%.2f", bestScore), String.format(Locale.ROOT, "%.2f", secondScore));
+            return null;
+        }
+        WebElement element = (WebElement) best.get("element");
+        String replacement = uniqueXPath(driver, best, element);
+        return replacement == null ? null : new Repair(replacement, element, bestScore);
+    }
+
+    private static Repair resolve(WebDriver driver, String page, String xpath) {
+        LocatorResolver r = resolver();
+        if (r == null) {
+            return null;
+        }
+        String suggestion;
+        try {
+            suggestion = r.resolve(page, xpath, driver.getPageSource());
+        } catch (RuntimeException e) {
+            logger.warn("Locator resolver {} failed: {}", r.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+        if (suggestion == null || suggestion.trim().isEmpty() || suggestion.trim().equals(xpath)) {
+            return null;
+        }
+        try {
+            List<WebElement> found = driver.findElements(By.xpath(suggestion.trim()));
+            if (found.size() == 1) {
+                return new Repair(suggestion.trim(), found.get(0), 1.0);
+            }
+            logger.warn("Resolver suggestion {} matches {} elements; ignored", suggestion, found.size());
+        } catch (RuntimeException e) {
+            logger.warn("Resolver suggestion {} is not a usable XPath: {}", suggestion, e.getMessage());
+        }
+        return null;
+    }
+
+    private static LocatorResolver resolver() {
+        if (!resolverLoaded) {
+            synchronized (LocatorHealer.class) {
+                if (!resolverLoaded) {
+                    String name = System.getProperty("locator.resolver.class", "").trim();
+                    if (!name.isEmpty()) {
+                        try {
+                            resolver = (LocatorResolver) Class.forName(name, true,
+                                    Thread.currentThread().getContextClassLoader()).getDeclaredConstructor().newInstance();
+                        } catch (ReflectiveOperationException | ClassCastException e) {
+                            throw new IllegalArgumentException("Invalid locator.resolver.class " + name + ": " + e, e);
+                        }
+                    }
+                    resolverLoaded = true;
+                }
+            }
+        }
+        return resolver;
+    }
+
+    /** Shortest attribute-based XPath that matches only {@code element}, or null. */
+    private static String uniqueXPath(WebDriver driver, Map<String, Object> candidate, WebElement element) {
+        String tag = (String) candidate.get("tag");
+        List<String> options = new ArrayList<>();
+        for (String attr : LOCATOR_ATTRIBUTES) {
+            Object value = candidate.get(attr);
+            if (value instanceof String && !((String) value).isEmpty() && !((String) value).contains("'")) {
+                options.add("//" + tag + "[@" + attr + "='" + value + "']");
+            }
+        }
+        Object text = candidate.get("text");
+        if (text instanceof String && !((String) text).isEmpty() && !((String) text).contains("'")) {
+            options.add("//" + tag + "[normalize-space()='" + text + "']");
+        }
+        for (String option : options) {
+            List<WebElement> found = driver.findElements(By.xpath(option));
+            if (found.size() == 1 && found.get(0).equals(element)) {
+                return option;
+            }
+        }
+        return null;
+    }
+
+    private static String key(String page, String xpath) {
+        return page + "|" + xpath;
+    }
+
+    private static void loadCache() {
+        if (cacheLoaded) return;
+        cacheLoaded = true;
+        if (Files.isRegularFile(CACHE_FILE)) {
+            try (Reader in = Files.newBufferedReader(CACHE_FILE, StandardCharsets.UTF_8)) {
+                CACHE.load(in);
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable locator cache {}: {}", CACHE_FILE, e.getMessage());
+            }
+        }
+    }
+
+    private static void saveCache() {
+        try {
+            Path dir = CACHE_FILE.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, CACHE_FILE.getFileName().toString(), ".tmp");
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                CACHE.store(out, "Healed locators: <page>|<original xpath> = <replacement xpath>");
+            }
+            Files.move(tmp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write locator cache {}: {}", CACHE_FILE, e.getMessage());
+        }
+    }
+
+    static final class Repair {
+        final String xpath;
+        final WebElement element;
+        final double score;
+
+        Repair(String xpath, WebElement element, double score) {
+            this.xpath = xpath;
+            this.element = element;
+            this.score = score;
+        }
+    }
+
+    /** Tag and attribute/text predicates of the last step of an XPath. */
+    static final class Expected {
+        final String tag;
+        final List<String[]> predicates; // {attribute or "text", value, "=" or "contains"}
+
+        private Expected(String tag, List<String[]> predicates) {
+            this.tag = tag;
+            this.predicates = predicates;
+        }
+
+        static Expected parse(String xpath) {
+            String step = lastStep(xpath);
+            Matcher tagMatch = TAG.matcher(step);
+            String tag = tagMatch.find() ? tagMatch.group(1).toLowerCase(Locale.ROOT) : "*";
+            List<String[]> predicates = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            Matcher m = CONTAINS.matcher(step);
+            while (m.find()) {
+                predicates.add(new String[]{m.group(1).toLowerCase(Locale.ROOT), m.group(3), "contains"});
+                seen.add(m.group(1).toLowerCase(Locale.ROOT));
+            }
+            m = EQUALS.matcher(step);
+            while (m.find()) {
+                if (!seen.contains(m.group(1).toLowerCase(Locale.ROOT))) {
+                    predicates.add(new String[]{m.group(1).toLowerCase(Locale.ROOT), m.group(3), "="});
+                }
+            }
+            m = TEXT.matcher(step);
+            while (m.find()) {
+                predicates.add(new String[]{"text", m.group(2), "contains"});
+            }
+            return new Expected(tag, Collections.unmodifiableList(predicates));
+        }
+
+        /**
+         * Mean over predicates of the best match: the same attribute (1.0 exact, else 0.9 x closeness),
+         * the value turning up in another locator attribute (0.8 x closeness) or in the text (0.7 x).
+         * Candidates of another tag are discounted by 0.7.
+         */
+        double score(Map<String, Object> candidate) {
+            double total = 0;
+            for (String[] p : predicates) {
+                String attr = p[0], value = p[1];
+                boolean contains = p[2].equals("contains");
+                double best = 0;
+                Object own = candidate.get(attr);
+                if (own instanceof String) {
+                    String actual = (String) own;
+                    if (actual.equals(value) || (attr.equals("class") && tokens(actual).contains(value))) {
+                        best = 1.0;
+                    } else {
+                        best = 0.9 * closeness(actual, value, contains);
+                    }
+                }
+                for (String other : LOCATOR_ATTRIBUTES) {
+                    Object v = candidate.get(other);
+                    if (!other.equals(attr) && !other.equals("class") && v instanceof String) {
+                        best = Math.max(best, 0.8 * closeness((String) v, value, contains));
+                    }
+                }
+                Object text = candidate.get("text");
+                if (!attr.equals("text") && text instanceof String) {
+                    best = Math.max(best, 0.7 * closeness((String) text, value, contains));
+                }
+                total += best;
+            }
+            double score = total / predicates.size();
+            return tag.equals("*") || tag.equals(candidate.get("tag")) ? score : 0.7 * score;
+        }
+
+        /** 1.0 when equal ignoring case and punctuation ("user-name" ~ "Username"), else bigram similarity. */
+        private static double closeness(String actual, String expected, boolean contains) {
+            String a = normalize(actual), e = normalize(expected);
+            if (a.isEmpty() || e.isEmpty()) return 0.0;
+            if (a.equals(e)) return 1.0;
+            if (contains && a.contains(e)) return 0.9;
+            return similarity(a, e);
+        }
+
+        private static String normalize(String value) {
+            return value.toLowerCase(Locale.ROOT).replaceAll("[^\\p{Alnum}]", "");
+        }
+
+        private static String lastStep(String xpath) {
+            int depth = 0;
+            char quote = 0;
+            int start = 0;
+            for (int i = 0; i < xpath.length(); i++) {
+                char c = xpath.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) quote = 0;
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[') {
+                    depth++;
+                } else if (c == ']') {
+                    depth--;
+                } else if (c == '/' && depth == 0) {
+                    start = i + 1;
+                }
+            }
+            return xpath.substring(start).trim();
+        }
+
+        private static Set<String> tokens(String classes) {
+            return new HashSet<>(Arrays.asList(classes.trim().split("\\s+")));
+        }
+
+        /** Dice coefficient over character bigrams; 1.0 for equal strings. */
+        static double similarity(String a, String b) {
+            if (a.equals(b)) return 1.0;
+            if (a.length() < 2 || b.length() < 2) return 0.0;
+            List<String> left = new ArrayList<>();
+            for (int i = 0; i < a.length() - 1; i++) left.add(a.substring(i, i + 2));
+            int shared = 0, pairsB = b.length() - 1;
+            for (int i = 0; i < pairsB; i++) {
+                if (left.remove(b.substring(i, i + 2))) shared++;
+            }
+            return 2.0 * shared / (a.length() - 1 + pairsB);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package utils;
+
+/**
+ * Fallback for {@link LocatorHealer} when its local heuristic cannot repair a locator, e.g. a
+ * remote model. Only consulted on a cache miss; whatever it returns is verified against the page
+ * before it is used or cached.
+ *
+ * Implementations need a public no-arg constructor; select one with -Dlocator.resolver.class.
+ */
+public interface LocatorResolver {
+
+    /**
+     * Returns an XPath for the element {@code brokenXPath} was meant to find on {@code page},
+     * or null when there is no suggestion.
+     */
+    String resolve(String page, String brokenXPath, String pageSource);
+}
@@ -0,0 +1,88 @@
+package utils;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scope for native OpenCV memory: every Mat created through or handed to the arena is
+ * released when the arena closes, instead of waiting for the GC to finalize the wrappers.
+ *
+ * <pre>
+ * try (MatArena arena = MatArena.open()) {
+ *     Mat gray = arena.newMat();
+ *     ...
+ * }
+ * </pre>
+ *
+ * An arena is meant to be used by one thread; live sizes are published to {@link NativeMemory}.
+ */
+public final class MatArena implements AutoCloseable {
+
+    private final List<Mat> mats = new ArrayList<>();
+    private long accountedBytes;
+    private boolean closed;
+
+    private MatArena() {
+        NativeMemory.arenaOpened();
+    }
+
+    public static MatArena open() {
+        return new MatArena();
+    }
+
+    public Mat newMat() {
+        return track(new Mat());
+    }
+
+    /** Adopts a Mat (or submat view) so it is released with the arena; returns it for chaining. */
+    public Mat track(Mat mat) {
+        if (closed) {
+            throw new IllegalStateException("MatArena: already closed");
+        }
+        if (mat != null) {
+            mats.add(mat);
+            sync();
+        }
+        return mat;
+    }
+
+    /** Hands a tracked Mat over to the caller; it will no longer be released by this arena. */
+    public Mat detach(Mat mat) {
+        for (int i = mats.size() - 1; i >= 0; i--) {
+            if (mats.get(i) == mat) {
+                mats.remove(i);
+                break;
+            }
+        }
+        sync();
+        return mat;
+    }
+
+    /** Re-reads the sizes of tracked Mats (they grow once an OpenCV call writes into them). */
+    public void sync() {
+        long bytes = 0;
+        for (Mat m : mats) {
+            // Views share their parent's buffer, only owners are counted
+            if (!m.isSubmatrix()) {
+                bytes += m.total() * m.elemSize();
+            }
+        }
+        NativeMemory.adjustLive(bytes - accountedBytes);
+        accountedBytes = bytes;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        sync();
+        closed = true;
+        for (int i = mats.size() - 1; i >= 0; i--) {
+            mats.get(i).release();
+        }
+        mats.clear();
+        NativeMemory.arenaClosed(accountedBytes);
+        accountedBytes = 0;
+    }
+}
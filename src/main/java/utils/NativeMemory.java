@@ -0,0 +1,62 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for native OpenCV memory held by the image code paths, so growth shows up in the
+ * run report instead of as a native OOM on the agent.
+ */
+public final class NativeMemory {
+
+    private static final AtomicLong LIVE_ARENA_BYTES = new AtomicLong();
+    private static final AtomicLong PEAK_ARENA_BYTES = new AtomicLong();
+    private static final AtomicLong RELEASED_BYTES = new AtomicLong();
+    private static final AtomicLong OPEN_ARENAS = new AtomicLong();
+    private static final AtomicLong WORKER_BUFFER_BYTES = new AtomicLong();
+
+    private NativeMemory() {
+    }
+
+    static void arenaOpened() {
+        OPEN_ARENAS.incrementAndGet();
+    }
+
+    static void arenaClosed(long releasedBytes) {
+        OPEN_ARENAS.decrementAndGet();
+        RELEASED_BYTES.addAndGet(releasedBytes);
+        adjustLive(-releasedBytes);
+    }
+
+    static void adjustLive(long delta) {
+        if (delta == 0) return;
+        long live = LIVE_ARENA_BYTES.addAndGet(delta);
+        PEAK_ARENA_BYTES.accumulateAndGet(live, Math::max);
+    }
+
+    static void adjustWorkerBuffers(long delta) {
+        WORKER_BUFFER_BYTES.addAndGet(delta);
+    }
+
+    /** Bytes held by open arenas plus long-lived caches/buffers. */
+    public static long liveBytes() {
+        return LIVE_ARENA_BYTES.get() + WORKER_BUFFER_BYTES.get() + TemplateCache.shared().nativeBytes();
+    }
+
+    public static long peakArenaBytes() {
+        return PEAK_ARENA_BYTES.get();
+    }
+
+    public static long openArenas() {
+        return OPEN_ARENAS.get();
+    }
+
+    public static String summary() {
+        return "live native bytes   : " + liveBytes() + "\n" +
+                "  open arenas        : " + OPEN_ARENAS.get() + " (" + LIVE_ARENA_BYTES.get() + " bytes)\n" +
+                "  template cache     : " + TemplateCache.shared().size() + " entries ("
+                + TemplateCache.shared().nativeBytes() + " bytes)\n" +
+                "  worker buffers     : " + WORKER_BUFFER_BYTES.get() + " bytes\n" +
+                "peak arena bytes    : " + PEAK_ARENA_BYTES.get() + "\n" +
+                "released by arenas  : " + RELEASED_BYTES.get() + " bytes";
+    }
+}
@@ -6,77 +6,213 @@ import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.interactions.PointerInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
 
 public class OpenCVUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(OpenCVUtil.class);
+
     static {
         OpenCV.loadLocally();
         System.out.println("[OpenCV] Library loaded successfully.");
     }
 
+    /** Minimum TM_CCOEFF_NORMED score for an image match to count (and be clicked). */
+    public static final double DEFAULT_THRESHOLD = 0.6;
+
     /**
-     * Clicks on a UI element in a screenshot using a template image.
-     * Passes only if similarity is almost exact.
+     * Locates the template in a viewport screenshot file and, when the score reaches
+     * {@link #DEFAULT_THRESHOLD}, clicks the centre of the match. Returns the match with the time
+     * taken; check {@code score} to know whether it was clicked. The template should be the control
+     * to click, not a full-page baseline (use {@link #locateUsingImage} to only assert on those).
      */
-    public static boolean clickUsingImage(WebDriver driver,
-                                          String screenshotPath,
-                                          String templatePath) {
+    public static VisualAssert.TemplateResult clickUsingImage(WebDriver driver,
+                                                              String screenshotPath,
+                                                              String templatePath) {
 
         System.out.println("--------------------------------------------------");
         System.out.println("[OpenCV] Starting strict image validation...");
         System.out.println("[OpenCV] Screenshot Path: " + screenshotPath);
         System.out.println("[OpenCV] Template Path  : " + templatePath);
 
-        Mat source = Imgcodecs.imread(screenshotPath);
-        Mat template = Imgcodecs.imread(templatePath);
+        long start = System.nanoTime();
+        try (MatArena arena = MatArena.open()) {
+            Mat source = arena.track(Imgcodecs.imread(screenshotPath));
 
-        if (source.empty()) {
-            throw new RuntimeException("[ERROR] Screenshot not loaded: " + screenshotPath);
+            if (source.empty()) {
+                throw new RuntimeException("[ERROR] Screenshot not loaded: " + screenshotPath);
+            }
+            return match(driver, source, templatePath, true, start);
         }
-        if (template.empty()) {
-            throw new RuntimeException("[ERROR] Template not loaded: " + templatePath);
+    }
+
+    /**
+     * Same as {@link #clickUsingImage(WebDriver, String, String)} for a viewport screenshot already decoded
+     * in memory (see {@link ScreenshotUtil#captureMat}); the screenshot Mat is not modified.
+     */
+    public static VisualAssert.TemplateResult clickUsingImage(WebDriver driver,
+                                                              Mat screenshotBgr,
+                                                              String templatePath) {
+
+        logger.info("Image validation: in-memory screenshot {}, template {}", screenshotBgr.size(), templatePath);
+
+        if (screenshotBgr.empty()) {
+            throw new RuntimeException("[ERROR] Screenshot is empty");
         }
+        return match(driver, screenshotBgr, templatePath, true, System.nanoTime());
+    }
+
+    /**
+     * Locates the template in a viewport screenshot already decoded in memory without interacting
+     * with the page, for checks that a screen or element is shown. Returns the match with the time
+     * taken; it passed when {@code score} reaches {@link #DEFAULT_THRESHOLD}.
+     */
+    public static VisualAssert.TemplateResult locateUsingImage(Mat screenshotBgr, String templatePath) {
 
-        if (template.cols() > source.cols() || template.rows() > source.rows()) {
-            System.out.println("[WARNING] Template larger than screenshot, resizing minimally...");
-            double scaleWidth = (double) source.cols() / template.cols();
-            double scaleHeight = (double) source.rows() / template.rows();
-            double scale = Math.min(scaleWidth, scaleHeight);
+        logger.info("Image validation: in-memory screenshot {}, template {}", screenshotBgr.size(), templatePath);
 
-            Mat resized = new Mat();
-            Imgproc.resize(template, resized, new Size(), scale, scale);
-            template = resized;
+        if (screenshotBgr.empty()) {
+            throw new RuntimeException("[ERROR] Screenshot is empty");
+        }
+        return match(null, screenshotBgr, templatePath, false, System.nanoTime());
+    }
 
-            System.out.println("[INFO] Resized Template Size: " + template.cols() + " x " + template.rows());
+    private static VisualAssert.TemplateResult match(WebDriver driver, Mat screenshotBgr,
+                                                     String templatePath, boolean click, long start) {
+        VisualAssert.TemplateResult match = locate(screenshotBgr, templatePath, DEFAULT_THRESHOLD);
+        boolean clicked = click && match.score >= DEFAULT_THRESHOLD;
+        if (clicked) {
+            clickAt(driver, match);
         }
+        VisualAssert.TemplateResult timed = match.withElapsed(System.nanoTime() - start);
+        Timings.record(click ? "opencv clickUsingImage" : "opencv locateUsingImage", timed.elapsedNanos);
+        logger.info("Image locate{} took {} ms", clicked ? " + click" : "", timed.elapsedMillis());
+        return timed;
+    }
 
-        // Convert to grayscale for strict matching
-        Imgproc.cvtColor(source, source, Imgproc.COLOR_BGR2GRAY);
-        Imgproc.cvtColor(template, template, Imgproc.COLOR_BGR2GRAY);
+    /**
+     * Clicks the centre of a match found in a viewport screenshot: screenshot pixels are divided by
+     * devicePixelRatio to get CSS pixels relative to the viewport, which is where a W3C pointer move
+     * with viewport origin lands. Scroll offsets are only logged (as the page coordinate).
+     */
+    private static void clickAt(WebDriver driver, VisualAssert.TemplateResult match) {
+        ScreenshotUtil.ViewportGeometry geometry =
+                ScreenshotUtil.probeGeometry(driver, Collections.emptyList(), false);
+        Point centre = match.center();
+        int cssX = (int) Math.round(centre.x / geometry.dpr);
+        int cssY = (int) Math.round(centre.y / geometry.dpr);
+        logger.info("Clicking match centre at viewport ({}, {}) CSS px, page ({}, {}), dpr={}", cssX, cssY,
+                Math.round(cssX + geometry.scrollX), Math.round(cssY + geometry.scrollY), geometry.dpr);
+
+        PointerInput mouse = new PointerInput(PointerInput.Kind.MOUSE, "image-locator");
+        new Actions(PageStability.unwrap(driver))
+                .tick(mouse.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), cssX, cssY))
+                .tick(mouse.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
+                .tick(mouse.createPointerUp(PointerInput.MouseButton.LEFT.asArg()))
+                .perform();
+    }
 
-        // Optional: slightly blur to reduce noise
-        Imgproc.GaussianBlur(source, source, new Size(3,3), 0);
-        Imgproc.GaussianBlur(template, template, new Size(3,3), 0);
+    private static VisualAssert.TemplateResult locate(Mat screenshotBgr, String templatePath, double threshold) {
+        long hash = HashPrefilter.enabled() ? PerceptualHash.dHash(screenshotBgr) : 0L;
+
+        // Template is decoded, grayscaled and blurred once per process via the shared cache
+        try (MatArena arena = MatArena.open();
+             TemplateCache.Pyramid pyramid = TemplateCache.shared().acquire(templatePath, 3, 1.0, 1.0, 1.0)) {
+            if (pyramid.levels.isEmpty()) {
+                throw new RuntimeException("[ERROR] Template too small to match: " + templatePath);
+            }
+            Mat template = pyramid.levels.get(0).gray;
+
+            if (template.cols() > screenshotBgr.cols() || template.rows() > screenshotBgr.rows()) {
+                System.out.println("[WARNING] Template larger than screenshot, resizing minimally...");
+                double scaleWidth = (double) screenshotBgr.cols() / template.cols();
+                double scaleHeight = (double) screenshotBgr.rows() / template.rows();
+                double scale = Math.min(scaleWidth, scaleHeight);
+
+                Mat resized = arena.newMat();
+                Imgproc.resize(template, resized, new Size(), scale, scale);
+                template = resized;
+
+                System.out.println("[INFO] Resized Template Size: " + template.cols() + " x " + template.rows());
+            }
+
+            // Same screen as a previous passing run: a 64-bit hash of a whole frame misses small changes,
+            // so confirm with one correlation at the remembered spot instead of trusting the cached score
+            if (HashPrefilter.enabled()) {
+                VisualAssert.TemplateResult known = HashPrefilter.lookup(hash, screenshotBgr, templatePath, threshold);
+                VisualAssert.TemplateResult confirmed = known == null ? null : correlateAt(screenshotBgr, template, known.location);
+                if (confirmed != null && confirmed.score >= threshold) {
+                    logger.info("Image match passed: known-good screen, confirmed at {} with score {}",
+                            confirmed.topLeft, confirmed.score);
+                    return confirmed;
+                }
+            }
+
+            // Search the region learned from earlier passes first, the full screenshot if needed
+            Mat needle = template;
+            VisualAssert.TemplateResult match = RegionHint.search(screenshotBgr, templatePath, threshold,
+                    hay -> correlate(hay, needle));
+            System.out.println("[RESULT] Maximum Similarity Score: " + match.score);
+
+            System.out.println("[INFO] Threshold for strict validation: " + threshold);
+
+            if (match.score >= threshold) {
+                System.out.println("[SUCCESS] Image match PASSED. Similarity meets strict criteria.");
+                if (HashPrefilter.enabled()) {
+                    HashPrefilter.learn(hash, screenshotBgr, templatePath, match);
+                }
+            } else {
+                System.out.println("[FAILURE] Image match FAILED. Similarity below strict threshold.");
+            }
+            return match;
+        }
+    }
+
+    /** Correlation of the template exactly at {@code location}, or null when it is not the template's spot. */
+    private static VisualAssert.TemplateResult correlateAt(Mat screenshotBgr, Mat template, Rect location) {
+        if (location.width != template.cols() || location.height != template.rows()
+                || location.x < 0 || location.y < 0
+                || location.x + location.width > screenshotBgr.cols()
+                || location.y + location.height > screenshotBgr.rows()) {
+            return null;
+        }
+        Mat view = screenshotBgr.submat(location);
+        try {
+            VisualAssert.TemplateResult at = correlate(view, template);
+            return new VisualAssert.TemplateResult(at.score, location.tl(), location);
+        } finally {
+            view.release();
+        }
+    }
 
-        // Prepare result matrix
-        int resultCols = source.cols() - template.cols() + 1;
-        int resultRows = source.rows() - template.rows() + 1;
-        Mat result = new Mat(resultRows, resultCols, CvType.CV_32FC1);
+    /** Grey + blurred TM_CCOEFF_NORMED correlation of one template over a (sub-)image. */
+    private static VisualAssert.TemplateResult correlate(Mat screenshotBgr, Mat template) {
+        if (template.cols() > screenshotBgr.cols() || template.rows() > screenshotBgr.rows()) {
+            throw new IllegalArgumentException("Template " + template.size() + " does not fit " + screenshotBgr.size());
+        }
+        try (MatArena arena = MatArena.open()) {
+            // Convert to grayscale for strict matching
+            Mat source = arena.newMat();
+            Imgproc.cvtColor(screenshotBgr, source, Imgproc.COLOR_BGR2GRAY);
 
-        Imgproc.matchTemplate(source, template, result, Imgproc.TM_CCOEFF_NORMED);
+            // Optional: slightly blur to reduce noise
+            Imgproc.GaussianBlur(source, source, new Size(3,3), 0);
 
-        Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
-        System.out.println("[RESULT] Maximum Similarity Score: " + mmr.maxVal);
+            // Prepare result matrix
+            int resultCols = source.cols() - template.cols() + 1;
+            int resultRows = source.rows() - template.rows() + 1;
+            Mat result = arena.track(new Mat(resultRows, resultCols, CvType.CV_32FC1));
 
-        double threshold = 0.6;
-        System.out.println("[INFO] Threshold for strict validation: " + threshold);
+            Imgproc.matchTemplate(source, template, result, Imgproc.TM_CCOEFF_NORMED);
 
-        if (mmr.maxVal >= threshold) {
-            System.out.println("[SUCCESS] Image match PASSED. Similarity meets strict criteria.");
-            return true;
-        } else {
-            System.out.println("[FAILURE] Image match FAILED. Similarity below strict threshold.");
-            return false;
+            Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+            return new VisualAssert.TemplateResult(mmr.maxVal, mmr.maxLoc,
+                    new Rect(mmr.maxLoc, new Size(template.cols(), template.rows())));
         }
     }
 }
@@ -0,0 +1,122 @@
+package utils;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, size-capped pool for OpenCV work fanned out by {@link VisualAssert}.
+ *
+ * The pool is sized so that (concurrent tests x pool threads x OpenCV internal threads) stays
+ * within the available cores:
+ *  - visual.concurrent.tests : tests matching at the same time (failsafe threadCount, default 4)
+ *  - visual.worker.threads   : explicit pool size (default cores / concurrent tests, capped at 8)
+ *
+ * OpenCV's own parallel_for thread count is process-wide and also drives EXHAUSTIVE and
+ * COARSE_TO_FINE searches, so it is not touched when the pool is created; it is set once at suite
+ * start by {@link #configureNativeThreads()}.
+ */
+public final class OpenCVWorkers {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenCVWorkers.class);
+
+    private static final int MAX_THREADS = 8;
+
+    private static final ThreadLocal<Mat> RESULT_BUFFER = new ThreadLocal<>();
+
+    private static volatile ExecutorService pool;
+    private static boolean nativeThreadsConfigured;
+
+    private OpenCVWorkers() {
+    }
+
+    public static ExecutorService pool() {
+        ExecutorService p = pool;
+        if (p == null) {
+            synchronized (OpenCVWorkers.class) {
+                p = pool;
+                if (p == null) {
+                    p = create();
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Caps OpenCV's internal threads at cores / visual.concurrent.tests so tests matching at the same
+     * time do not oversubscribe the cores. Applies to every OpenCV call in the JVM; only the first
+     * call has an effect. When visual.concurrent.tests is not set, OpenCV keeps its default (all cores).
+     */
+    public static synchronized void configureNativeThreads() {
+        if (nativeThreadsConfigured) {
+            return;
+        }
+        nativeThreadsConfigured = true;
+        String tests = System.getProperty("visual.concurrent.tests");
+        if (tests == null || tests.trim().isEmpty()) {
+            return;
+        }
+        nu.pattern.OpenCV.loadLocally();
+        int cores = Runtime.getRuntime().availableProcessors();
+        int cvThreads = Math.max(1, cores / Math.max(1, Integer.parseInt(tests.trim())));
+        Core.setNumThreads(cvThreads);
+        logger.info("OpenCV internal threads: {} (cores={}, concurrent tests={})", cvThreads, cores, tests.trim());
+    }
+
+    public static int poolSize() {
+        return ((ThreadPoolExecutor) pool()).getCorePoolSize();
+    }
+
+    /**
+     * Per-thread CV_32FC1 scratch buffer of at least rows x cols; grown when needed, never shrunk.
+     * Callers take a {@code submat(0, rows, 0, cols)} view so matchTemplate writes without allocating.
+     */
+    static Mat resultBuffer(int rows, int cols) {
+        Mat buf = RESULT_BUFFER.get();
+        if (buf == null || buf.rows() < rows || buf.cols() < cols) {
+            int r = rows;
+            int c = cols;
+            if (buf != null) {
+                r = Math.max(rows, buf.rows());
+                c = Math.max(cols, buf.cols());
+                NativeMemory.adjustWorkerBuffers(-buf.total() * buf.elemSize());
+                buf.release();
+            }
+            buf = new Mat(r, c, CvType.CV_32FC1);
+            NativeMemory.adjustWorkerBuffers(buf.total() * buf.elemSize());
+            RESULT_BUFFER.set(buf);
+        }
+        return buf;
+    }
+
+    private static ExecutorService create() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int concurrentTests = Math.max(1, Integer.getInteger("visual.concurrent.tests", 4));
+        int threads = Integer.getInteger("visual.worker.threads",
+                Math.min(MAX_THREADS, Math.max(1, cores / concurrentTests)));
+        threads = Math.max(1, threads);
+
+        logger.info("Worker pool: {} threads (cores={}, concurrent tests={})", threads, cores, concurrentTests);
+
+        AtomicInteger seq = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "opencv-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        // Bounded queue; when saturated the submitting test thread does the work itself
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
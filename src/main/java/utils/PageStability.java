@@ -0,0 +1,157 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects when a page has settled after navigation.
+ *
+ * On Chrome it listens on the driver's DevTools session (the one {@code LoginPage.setPixels} uses)
+ * for Network request start/finish and LayerTree paints, and waits until nothing is in flight and
+ * nothing was painted for {@code wait.quiet.ms}. Requests older than {@code stability.request.max.ms}
+ * (default 10000; long-polls, sockets) are ignored. Other browsers fall back to the injected
+ * MutationObserver probe of {@link WaitEngine#awaitPageReady}.
+ */
+public final class PageStability {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageStability.class);
+
+    // One tracker per browser; listeners are registered once per DevTools session
+    private static final Map<WebDriver, CdpActivityTracker> TRACKERS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private PageStability() {
+    }
+
+    /** Waits for the page to settle and returns the measured settle time. */
+    public static WaitEngine.WaitResult<Boolean> awaitStable(WebDriver driver, WaitEngine waits) {
+        WebDriver raw = unwrap(driver);
+        WaitEngine.WaitResult<Boolean> result;
+        String via;
+        CdpActivityTracker tracker = raw instanceof ChromeDriver ? tracker((ChromeDriver) raw) : null;
+        if (tracker != null) {
+            long quietMillis = Long.getLong("wait.quiet.ms", 250L);
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+            result = waits.until("network/paint idle (quiet " + quietMillis + " ms)",
+                    () -> tracker.isIdle(quietMillis)
+                            && "complete".equals(js.executeScript("return document.readyState")));
+            via = "CDP network/paint";
+        } else {
+            result = waits.awaitPageReady(driver);
+            via = "DOM mutation probe";
+        }
+        logger.info("Page settled in {} ms via {}", result.elapsedMillis(), via);
+        Timings.record("page settle (" + via + ")", result.elapsedNanos);
+        return result;
+    }
+
+    /**
+     * The DevTools session of a Chrome driver, created on first use and shared afterwards,
+     * or null when the (unwrapped) driver is not Chrome.
+     */
+    public static DevTools devTools(WebDriver driver) {
+        WebDriver raw = unwrap(driver);
+        if (!(raw instanceof ChromeDriver)) {
+            return null;
+        }
+        DevTools devTools = ((HasDevTools) raw).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        return devTools;
+    }
+
+    /** Strips Serenity's facade and other wrappers down to the real browser driver. */
+    public static WebDriver unwrap(WebDriver driver) {
+        WebDriver current = driver;
+        for (int i = 0; i < 5 && current != null; i++) {
+            WebDriver next = null;
+            if (current instanceof WrapsDriver) {
+                next = ((WrapsDriver) current).getWrappedDriver();
+            } else {
+                try {
+                    // net.serenitybdd WebDriverFacade
+                    Method m = current.getClass().getMethod("getProxiedDriver");
+                    next = (WebDriver) m.invoke(current);
+                } catch (ReflectiveOperationException | ClassCastException ignored) {
+                    // not a known wrapper
+                }
+            }
+            if (next == null || next == current) break;
+            current = next;
+        }
+        return current;
+    }
+
+    private static CdpActivityTracker tracker(ChromeDriver chrome) {
+        synchronized (TRACKERS) {
+            CdpActivityTracker tracker = TRACKERS.get(chrome);
+            if (tracker == null) {
+                try {
+                    tracker = new CdpActivityTracker(devTools(chrome));
+                } catch (RuntimeException e) {
+                    logger.warn("DevTools activity tracking unavailable ({}); using DOM probe", e.getMessage());
+                    return null;
+                }
+                TRACKERS.put(chrome, tracker);
+            }
+            return tracker;
+        }
+    }
+
+    private static final class CdpActivityTracker {
+        private final long maxRequestAgeNanos = Long.getLong("stability.request.max.ms", 10000L) * 1_000_000L;
+        private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+        private volatile long lastActivity = System.nanoTime();
+
+        CdpActivityTracker(DevTools devTools) {
+            devTools.send(new Command<>("Network.enable", Collections.emptyMap()));
+            devTools.send(new Command<>("LayerTree.enable", Collections.emptyMap()));
+
+            devTools.addListener(new Event<>("Network.requestWillBeSent", PageStability::requestId), id -> {
+                inFlight.put(id, System.nanoTime());
+                touch();
+            });
+            devTools.addListener(new Event<>("Network.loadingFinished", PageStability::requestId), this::finished);
+            devTools.addListener(new Event<>("Network.loadingFailed", PageStability::requestId), this::finished);
+            devTools.addListener(new Event<>("LayerTree.layerPainted", input -> {
+                input.skipValue();
+                return Boolean.TRUE;
+            }), painted -> touch());
+        }
+
+        private void finished(String id) {
+            inFlight.remove(id);
+            touch();
+        }
+
+        private void touch() {
+            lastActivity = System.nanoTime();
+        }
+
+        boolean isIdle(long quietMillis) {
+            long now = System.nanoTime();
+            inFlight.values().removeIf(started -> now - started > maxRequestAgeNanos);
+            return inFlight.isEmpty() && now - lastActivity >= quietMillis * 1_000_000L;
+        }
+    }
+
+    private static String requestId(org.openqa.selenium.json.JsonInput input) {
+        Map<String, Object> params = input.read(Json.MAP_TYPE);
+        Object id = params.get("requestId");
+        return id == null ? "" : id.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package utils;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * 64-bit difference hash (dHash): the image is shrunk to 9x8 grey and each bit records whether a
+ * pixel is brighter than its right neighbour. Near-identical frames differ in only a few bits,
+ * so {@link #distance} is a cheap "did anything visible change" test.
+ */
+public final class PerceptualHash {
+
+    static {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    private PerceptualHash() {
+    }
+
+    /** dHash of a BGR or grey Mat. */
+    public static long dHash(Mat image) {
+        try (MatArena arena = MatArena.open()) {
+            Mat gray = image.channels() == 1 ? image : arena.newMat();
+            if (gray != image) {
+                Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+            }
+            Mat small = arena.newMat();
+            Imgproc.resize(gray, small, new Size(9, 8), 0, 0, Imgproc.INTER_AREA);
+
+            byte[] px = new byte[72];
+            small.get(0, 0, px);
+            long hash = 0L;
+            for (int y = 0; y < 8; y++) {
+                for (int x = 0; x < 8; x++) {
+                    int left = px[y * 9 + x] & 0xFF;
+                    int right = px[y * 9 + x + 1] & 0xFF;
+                    hash = (hash << 1) | (left > right ? 1L : 0L);
+                }
+            }
+            return hash;
+        }
+    }
+
+    /** dHash of encoded PNG/JPEG bytes; decodes at quarter size in grey since only 9x8 is needed. */
+    public static long dHash(byte[] encoded) {
+        MatOfByte buf = new MatOfByte(encoded);
+        Mat gray = Imgcodecs.imdecode(buf, Imgcodecs.IMREAD_REDUCED_GRAYSCALE_4);
+        try {
+            if (gray.empty()) {
+                throw new RuntimeException("Image could not be decoded (" + encoded.length + " bytes)");
+            }
+            return dHash(gray);
+        } finally {
+            gray.release();
+            buf.release();
+        }
+    }
+
+    /** dHash of an image file (PNG/JPEG). */
+    public static long dHash(String path) {
+        Mat gray = Imgcodecs.imread(path, Imgcodecs.IMREAD_GRAYSCALE);
+        try {
+            if (gray.empty()) {
+                throw new RuntimeException("Image not found or unreadable: " + path);
+            }
+            return dHash(gray);
+        } finally {
+            gray.release();
+        }
+    }
+
+    /** Number of differing bits (0 = same hash, 64 = opposite). */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public static String toHex(long hash) {
+        return String.format("%016x", hash);
+    }
+
+    public static long fromHex(String hex) {
+        return Long.parseUnsignedLong(hex, 16);
+    }
+}
@@ -0,0 +1,126 @@
+package utils;
+
+import org.json.JSONObject;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Expected location of a baseline inside the haystack, learned from passing matches and kept in the
+ * "region" section of the baseline's sidecar ({@link BaselineSidecar}). Searches run on the region
+ * plus {@code visual.roi.margin} px (default 24) first and only fall back to the full frame when that
+ * does not reach the threshold.
+ *
+ * Hints apply only to haystacks of the size they were learned on. Like the pHash entries they are
+ * read from the versioned sidecar and only rewritten in record mode (-Dvisual.record=true, or
+ * -Dvisual.roi.learn=true for this learner alone). Disable with -Dvisual.roi.enabled=false.
+ */
+public final class RegionHint {
+
+    private static final AtomicLong ROI_HITS = new AtomicLong();
+    private static final AtomicLong FALLBACKS = new AtomicLong();
+    private static final AtomicLong PIXELS_SEARCHED = new AtomicLong();
+    private static final AtomicLong PIXELS_FULL = new AtomicLong();
+
+    // An ROI this large saves too little to be worth a possible second pass
+    private static final double MAX_ROI_SHARE = 0.8;
+
+    private RegionHint() {
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("visual.roi.enabled", "true"));
+    }
+
+    /**
+     * Runs {@code search} on the learned region of {@code haystack} first; returns that result
+     * (in haystack coordinates) when it reaches {@code threshold}, else the full-frame result.
+     * In record mode a full-frame pass that reaches the threshold updates the region.
+     */
+    static VisualAssert.TemplateResult search(Mat haystack, String baselinePath, double threshold,
+                                              Function<Mat, VisualAssert.TemplateResult> search) {
+        long full = haystack.total();
+        Rect roi = enabled() && threshold <= 1.0 ? roi(baselinePath, haystack) : null;
+        if (roi != null) {
+            Mat view = haystack.submat(roi);
+            VisualAssert.TemplateResult inRoi = null;
+            try {
+                inRoi = search.apply(view);
+            } catch (IllegalArgumentException tooSmall) {
+                // baseline no longer fits the region; use the full frame
+            } finally {
+                view.release();
+            }
+            PIXELS_FULL.addAndGet(full);
+            if (inRoi != null && inRoi.score >= threshold) {
+                ROI_HITS.incrementAndGet();
+                PIXELS_SEARCHED.addAndGet((long) roi.width * roi.height);
+                Point topLeft = new Point(inRoi.topLeft.x + roi.x, inRoi.topLeft.y + roi.y);
+                Rect location = new Rect(inRoi.location.x + roi.x, inRoi.location.y + roi.y,
+                        inRoi.location.width, inRoi.location.height);
+                return new VisualAssert.TemplateResult(inRoi.score, topLeft, location);
+            }
+            FALLBACKS.incrementAndGet();
+            PIXELS_SEARCHED.addAndGet((long) roi.width * roi.height + full);
+        }
+
+        VisualAssert.TemplateResult result = search.apply(haystack);
+        if (roi == null) {
+            PIXELS_FULL.addAndGet(full);
+            PIXELS_SEARCHED.addAndGet(full);
+        }
+        if (enabled() && result.score >= threshold && BaselineSidecar.recording("visual.roi.learn")) {
+            learn(baselinePath, haystack, result.location);
+        }
+        return result;
+    }
+
+    /** Learned region grown by the margin and clamped to the haystack, or null when there is no usable hint. */
+    static Rect roi(String baselinePath, Mat haystack) {
+        JSONObject region = BaselineSidecar.forBaseline(baselinePath).section("region");
+        if (region == null
+                || region.optInt("haystackWidth") != haystack.cols()
+                || region.optInt("haystackHeight") != haystack.rows()) {
+            return null;
+        }
+        int margin = Integer.getInteger("visual.roi.margin", region.optInt("margin", 24));
+        int x0 = Math.max(0, region.getInt("x") - margin);
+        int y0 = Math.max(0, region.getInt("y") - margin);
+        int x1 = Math.min(haystack.cols(), region.getInt("x") + region.getInt("width") + margin);
+        int y1 = Math.min(haystack.rows(), region.getInt("y") + region.getInt("height") + margin);
+        if (x1 <= x0 || y1 <= y0 || (double) (x1 - x0) * (y1 - y0) > MAX_ROI_SHARE * haystack.total()) {
+            return null;
+        }
+        return new Rect(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    private static void learn(String baselinePath, Mat haystack, Rect location) {
+        BaselineSidecar sidecar = BaselineSidecar.forBaseline(baselinePath);
+        JSONObject current = sidecar.section("region");
+        if (current != null
+                && current.optInt("x") == location.x && current.optInt("y") == location.y
+                && current.optInt("width") == location.width && current.optInt("height") == location.height
+                && current.optInt("haystackWidth") == haystack.cols()
+                && current.optInt("haystackHeight") == haystack.rows()) {
+            return;
+        }
+        JSONObject region = new JSONObject();
+        region.put("x", location.x);
+        region.put("y", location.y);
+        region.put("width", location.width);
+        region.put("height", location.height);
+        region.put("margin", current != null ? current.optInt("margin", 24) : 24);
+        region.put("haystackWidth", haystack.cols());
+        region.put("haystackHeight", haystack.rows());
+        sidecar.putSection("region", region);
+    }
+
+    public static String summary() {
+        long full = PIXELS_FULL.get();
+        return String.format("ROI hints: %d hits, %d fallbacks, searched %.1f%% of full-frame pixels",
+                ROI_HITS.get(), FALLBACKS.get(), full == 0 ? 100.0 : 100.0 * PIXELS_SEARCHED.get() / full);
+    }
+}
@@ -0,0 +1,188 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Step screenshots without blocking the test thread: the driver's PNG bytes are taken on the test
+ * thread, everything else (duplicate check, file write) happens on one background writer with a
+ * bounded queue. The bytes are handed back so the caller can attach them to the report.
+ *
+ * Settings:
+ *  - capture.dir          : folder for step frames (default target/screenshots)
+ *  - capture.policy       : ALL | FAILURES | FAILURES_AND_SAMPLED (default) | NONE
+ *  - capture.sample.rate  : share of passing steps kept with FAILURES_AND_SAMPLED (default 0.1)
+ *  - capture.dedupe.bits  : frames within this dHash distance of the previous frame of the same
+ *                           thread are skipped (default 2; -1 disables)
+ *  - capture.queue.size   : pending frames (default 32). When full, sampled frames are dropped and
+ *                           failure evidence is written by the calling thread.
+ */
+public final class ScreenshotCapture {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenshotCapture.class);
+
+    public enum Policy { ALL, FAILURES, FAILURES_AND_SAMPLED, NONE }
+
+    private static final Policy POLICY = Policy.valueOf(
+            System.getProperty("capture.policy", "FAILURES_AND_SAMPLED").trim().toUpperCase(Locale.ROOT));
+    private static final double SAMPLE_RATE = Double.parseDouble(System.getProperty("capture.sample.rate", "0.1"));
+    private static final int DEDUPE_BITS = Integer.getInteger("capture.dedupe.bits", 2);
+    private static final Path STEP_DIR = Paths.get(System.getProperty("capture.dir", "target/screenshots"));
+    // Keeps file names well inside filesystem limits once the timestamp is added
+    private static final int MAX_NAME = 120;
+
+    private static final AtomicLong STEPS = new AtomicLong();
+    private static final AtomicLong WRITTEN = new AtomicLong();
+    private static final AtomicLong DUPLICATES = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    // Previous frame per producing thread; only touched by the writer thread
+    private static final Map<String, Long> LAST_HASH = new HashMap<>();
+
+    private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Integer.getInteger("capture.queue.size", 32)), r -> {
+                Thread t = new Thread(r, "screenshot-writer");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    static {
+        // Let queued evidence reach the disk before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> drain(10, TimeUnit.SECONDS), "screenshot-drain"));
+    }
+
+    private ScreenshotCapture() {
+    }
+
+    public static Policy policy() {
+        return POLICY;
+    }
+
+    /** Whether a step with this outcome is captured under the current policy. */
+    public static boolean shouldCapture(boolean failed) {
+        switch (POLICY) {
+            case ALL:
+                return true;
+            case FAILURES:
+                return failed;
+            case FAILURES_AND_SAMPLED:
+                if (failed) return true;
+                long period = SAMPLE_RATE <= 0 ? Long.MAX_VALUE : Math.max(1L, Math.round(1.0 / SAMPLE_RATE));
+                return STEPS.getAndIncrement() % period == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Applies the policy to one finished step: takes the screenshot bytes now and queues the write
+     * to {@code capture.dir}, the file named after {@code name} (e.g. scenario and step). Returns the
+     * frame, or null when nothing was captured.
+     */
+    public static Frame afterStep(WebDriver driver, String name, boolean failed) {
+        if (!shouldCapture(failed)) {
+            return null;
+        }
+        byte[] png = ScreenshotUtil.captureBytes(driver);
+        String fileName = ScreenshotUtil.withTimestamp(fileSafe(name));
+        return new Frame(fileName, png, submit(png, STEP_DIR, fileName, !failed));
+    }
+
+    /** A captured step: its file name (without .png), the PNG bytes and the pending file write. */
+    public static final class Frame {
+        public final String name;
+        public final byte[] png;
+        public final Future<Path> file;
+
+        Frame(String name, byte[] png, Future<Path> file) {
+            this.name = name;
+            this.png = png;
+            this.file = file;
+        }
+    }
+
+    // Words separated by '-' (withTimestamp drops everything but letters, digits, '-' and '.')
+    private static String fileSafe(String name) {
+        String safe = name.trim().replaceAll("[^a-zA-Z0-9.]+", "-");
+        return safe.length() > MAX_NAME ? safe.substring(0, MAX_NAME) : safe;
+    }
+
+    /**
+     * Queues already-encoded PNG bytes for {@code dir/fileName.png}. With {@code dedupe} the frame is
+     * skipped (future completes with null) when it looks like the previous frame of this thread.
+     */
+    public static Future<Path> submit(byte[] png, Path dir, String fileName, boolean dedupe) {
+        String stream = Thread.currentThread().getName();
+        FutureTask<Path> task = new FutureTask<>(() -> write(png, dir, fileName, dedupe ? stream : null));
+        try {
+            WRITER.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (dedupe) {
+                // Sampled frame and the writer is behind: not worth slowing the step down
+                DROPPED.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            }
+            task.run();
+        }
+        return task;
+    }
+
+    private static Path write(byte[] png, Path dir, String fileName, String dedupeStream) throws Exception {
+        if (dedupeStream != null && DEDUPE_BITS >= 0) {
+            long hash = PerceptualHash.dHash(png);
+            Long previous = LAST_HASH.put(dedupeStream, hash);
+            if (previous != null && PerceptualHash.distance(previous, hash) <= DEDUPE_BITS) {
+                DUPLICATES.incrementAndGet();
+                return null;
+            }
+        }
+        Files.createDirectories(dir);
+        Path target = dir.resolve(fileName + ".png");
+        Files.write(target, png);
+        WRITTEN.incrementAndGet();
+        logger.debug("Saved screenshot: {}", target.toAbsolutePath());
+        return target;
+    }
+
+    /** Waits until every queued frame has been handled (or the timeout passes). */
+    public static void drain(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        FutureTask<Void> marker = new FutureTask<>(() -> null);
+        try {
+            while (true) {
+                try {
+                    WRITER.execute(marker);
+                    break;
+                } catch (RejectedExecutionException e) {
+                    // Queue full: wait for room behind the pending frames
+                    if (System.nanoTime() >= deadline) return;
+                    Thread.sleep(20);
+                }
+            }
+            marker.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            logger.warn("Screenshot queue not drained: {}", e.getMessage());
+        }
+    }
+
+    public static String summary() {
+        return String.format("policy=%s written=%d duplicates=%d dropped=%d queued=%d",
+                POLICY, WRITTEN.get(), DUPLICATES.get(), DROPPED.get(), WRITER.getQueue().size());
+    }
+}
@@ -8,17 +8,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.imgcodecs.Imgcodecs;
 
 import javax.imageio.ImageIO;
 
 public class ScreenshotUtil {
 
+    static {
+        // decode()/captureMat() may run before VisualAssert/OpenCVUtil are initialised
+        nu.pattern.OpenCV.loadLocally();
+    }
+
     public static String captureScreenshot(WebDriver driver, String fileName) {
         try {
             File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
@@ -30,30 +42,55 @@ public class ScreenshotUtil {
         }
     }
 
-    public static String saveSnapshot(WebDriver driver, String fileName) {
-        try {
-            // Take screenshot as FILE
-            File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
+    /** Raw PNG bytes of the viewport, straight from the driver (no temp file). */
+    public static byte[] captureBytes(WebDriver driver) {
+        try (Timings.Span ignored = Timings.start("screenshot capture")) {
+            return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (Exception e) {
+            throw new RuntimeException("Screenshot failed: " + e.getMessage(), e);
+        }
+    }
 
-            // Target directory inside src/main/resources/Snapshots
-            String folder = "src/main/resources/Snapshots";
-            File dir = new File(folder);
+    /** Viewport screenshot decoded directly into a BGR Mat owned by the caller. */
+    public static Mat captureMat(WebDriver driver) {
+        return decode(captureBytes(driver));
+    }
 
-            // Create folder if not exists
-            if (!dir.exists()) {
-                dir.mkdirs();
+    /** Decodes PNG/JPEG bytes into a BGR Mat owned by the caller (release it or track it in a {@link MatArena}). */
+    public static Mat decode(byte[] encoded) {
+        MatOfByte buf = new MatOfByte(encoded);
+        try (Timings.Span ignored = Timings.start("screenshot decode")) {
+            Mat mat = Imgcodecs.imdecode(buf, Imgcodecs.IMREAD_COLOR);
+            if (mat.empty()) {
+                mat.release();
+                throw new RuntimeException("Screenshot could not be decoded (" + encoded.length + " bytes)");
             }
+            return mat;
+        } finally {
+            buf.release();
+        }
+    }
 
-            // Build final path
-            String finalPath = folder + "/" + fileName + ".png";
-            File dest = new File(finalPath);
-
-            // Copy screenshot to destination
-            org.apache.commons.io.FileUtils.copyFile(src, dest);
-
-            System.out.println("Saved snapshot: " + dest.getAbsolutePath());
-            return dest.getAbsolutePath();
+    /**
+     * Writes already-encoded screenshot bytes to screenshots/ on the {@link ScreenshotCapture} writer;
+     * intended for failure evidence so the happy path never touches the disk. When the writer falls
+     * behind the calling thread writes the file itself rather than dropping it.
+     */
+    public static Future<Path> persistAsync(byte[] png, String fileName) {
+        return ScreenshotCapture.submit(png, Paths.get("screenshots"), withTimestamp(fileName), false);
+    }
 
+    /**
+     * Saves a viewport snapshot to target/snapshots and returns its absolute path. Written on the
+     * calling thread, so the file exists when this returns; it is not on the per-step capture path.
+     */
+    public static String saveSnapshot(WebDriver driver, String fileName) {
+        try {
+            Path folder = Paths.get("target", "snapshots");
+            Files.createDirectories(folder);
+            Path target = folder.resolve(fileName + ".png");
+            Files.write(target, captureBytes(driver));
+            return target.toAbsolutePath().toString();
         } catch (Exception e) {
             throw new RuntimeException("Failed to save snapshot: " + e.getMessage(), e);
         }
@@ -75,51 +112,153 @@ public class ScreenshotUtil {
         return (val instanceof Number) ? ((Number) val).doubleValue() : 1.0;
     }
 
-    private static long scrollX(WebDriver driver) {
-        Object val = ((JavascriptExecutor) driver).executeScript(
-                "return window.pageXOffset || document.documentElement.scrollLeft || 0;");
-        return (val instanceof Number) ? ((Number) val).longValue() : 0L;
+    /** Element crop as a TYPE_3BYTE_BGR image; see {@link #elementScreenshotMat}. */
+    public static BufferedImage elementScreenshot(WebDriver driver, WebElement el) throws Exception {
+        Mat crop = elementScreenshotMat(driver, el);
+        try {
+            return VisualAssert.toBufferedImage(crop);
+        } finally {
+            crop.release();
+        }
     }
 
-    private static long scrollY(WebDriver driver) {
-        Object val = ((JavascriptExecutor) driver).executeScript(
-                "return window.pageYOffset || document.documentElement.scrollTop || 0;");
-        return (val instanceof Number) ? ((Number) val).longValue() : 0L;
+    /**
+     * Element crop as a BGR Mat owned by the caller: one script scrolls the element into view and
+     * measures it, one screenshot is decoded and the element is cut out as an ROI.
+     */
+    public static Mat elementScreenshotMat(WebDriver driver, WebElement el) {
+        ViewportGeometry geometry = probeGeometry(driver, Collections.singletonList(el), true);
+        Mat full = captureMat(driver);
+        try {
+            //saveElementScreenshotDirect(el, withTimestamp("element_" + el.getTagName()));
+            return crop(full, geometry.deviceRect(0, full));
+        } finally {
+            full.release(); // free memory
+        }
     }
 
-    public static BufferedImage elementScreenshot(WebDriver driver, WebElement el) throws Exception {
-        ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({block:'center'});", el);
-        BufferedImage full = viewportScreenshot(driver);
-        double dpr = devicePixelRatio(driver);
-
-        org.openqa.selenium.Point loc = el.getLocation();
-        org.openqa.selenium.Dimension size = el.getSize();
-
-        long sx = scrollX(driver);
-        long sy = scrollY(driver);
-
-        int x = (int) Math.round((loc.getX() - sx) * dpr);
-        int y = (int) Math.round((loc.getY() - sy) * dpr);
-        int w = (int) Math.round(size.getWidth() * dpr);
-        int h = (int) Math.round(size.getHeight() * dpr);
-
-        // Clamp to image
-        x = Math.max(0, Math.min(x, full.getWidth() - 1));
-        y = Math.max(0, Math.min(y, full.getHeight() - 1));
-        w = Math.max(1, Math.min(w, full.getWidth() - x));
-        h = Math.max(1, Math.min(h, full.getHeight() - y));
-
-        // IMPORTANT: create a deep copy so we can free the big "full" image
-        BufferedImage copy = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = copy.createGraphics();
+    /**
+     * Crops several elements from a single viewport capture (one geometry script + one screenshot),
+     * returned in the same order as {@code elements}. Elements not fully inside the viewport are
+     * captured individually after scrolling them into view.
+     */
+    public static List<Mat> elementScreenshotsMat(WebDriver driver, List<? extends WebElement> elements) {
+        ViewportGeometry geometry = probeGeometry(driver, elements, false);
+        List<Mat> crops = new ArrayList<>(elements.size());
+        Mat full = captureMat(driver);
+        try {
+            for (int i = 0; i < elements.size(); i++) {
+                crops.add(geometry.inViewport(i) ? crop(full, geometry.deviceRect(i, full)) : null);
+            }
+        } finally {
+            full.release();
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            if (crops.get(i) == null) {
+                crops.set(i, elementScreenshotMat(driver, elements.get(i)));
+            }
+        }
+        return crops;
+    }
+
+    private static final String GEOMETRY_SCRIPT =
+            "var els = arguments[0], scroll = arguments[1];" +
+            "if (scroll && els.length) { els[0].scrollIntoView({block:'center'}); }" +
+            "var vw = window.innerWidth, vh = window.innerHeight, rects = [];" +
+            "for (var i = 0; i < els.length; i++) {" +
+            "  var r = els[i].getBoundingClientRect();" +
+            "  rects.push([r.left, r.top, r.width, r.height," +
+            "    r.left >= 0 && r.top >= 0 && r.right <= vw && r.bottom <= vh]);" +
+            "}" +
+            "return {dpr: window.devicePixelRatio || 1," +
+            "  scrollX: window.pageXOffset || document.documentElement.scrollLeft || 0," +
+            "  scrollY: window.pageYOffset || document.documentElement.scrollTop || 0," +
+            "  rects: rects};";
+
+    /**
+     * Scroll offsets, devicePixelRatio and getBoundingClientRect of every element in one executeScript
+     * round-trip. With {@code scrollFirstIntoView} the first element is centred before measuring.
+     */
+    @SuppressWarnings("unchecked")
+    public static ViewportGeometry probeGeometry(WebDriver driver, List<? extends WebElement> elements,
+                                                 boolean scrollFirstIntoView) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(GEOMETRY_SCRIPT, elements, scrollFirstIntoView);
+        if (!(raw instanceof Map)) {
+            throw new RuntimeException("Geometry probe returned unexpected value: " + raw);
+        }
+        Map<String, Object> map = (Map<String, Object>) raw;
+        List<List<Object>> rects = (List<List<Object>>) map.get("rects");
+
+        List<double[]> css = new ArrayList<>(rects.size());
+        List<Boolean> inViewport = new ArrayList<>(rects.size());
+        for (List<Object> r : rects) {
+            css.add(new double[]{num(r.get(0)), num(r.get(1)), num(r.get(2)), num(r.get(3))});
+            inViewport.add(Boolean.TRUE.equals(r.get(4)));
+        }
+        double dpr = num(map.get("dpr"));
+        return new ViewportGeometry(dpr > 0 ? dpr : 1.0, num(map.get("scrollX")), num(map.get("scrollY")),
+                css, inViewport);
+    }
+
+    private static double num(Object val) {
+        return (val instanceof Number) ? ((Number) val).doubleValue() : 0.0;
+    }
+
+    private static Mat crop(Mat full, Rect rect) {
+        // IMPORTANT: deep copy of the ROI so the big "full" Mat can be freed
+        Mat roi = full.submat(rect);
         try {
-            g.drawImage(full, 0, 0, w, h, x, y, x + w, y + h, null);
+            return roi.clone();
         } finally {
-            g.dispose();
-            full.flush(); // free memory
+            roi.release();
+        }
+    }
+
+    /** Result of {@link #probeGeometry}: element rects in CSS px relative to the viewport. */
+    public static final class ViewportGeometry {
+        public final double dpr;
+        public final double scrollX;
+        public final double scrollY;
+        private final List<double[]> cssRects;
+        private final List<Boolean> inViewport;
+
+        ViewportGeometry(double dpr, double scrollX, double scrollY,
+                         List<double[]> cssRects, List<Boolean> inViewport) {
+            this.dpr = dpr;
+            this.scrollX = scrollX;
+            this.scrollY = scrollY;
+            this.cssRects = cssRects;
+            this.inViewport = inViewport;
+        }
+
+        public int size() {
+            return cssRects.size();
+        }
+
+        public boolean inViewport(int index) {
+            return inViewport.get(index);
+        }
+
+        /** {left, top, width, height} in CSS px relative to the viewport. */
+        public double[] cssRect(int index) {
+            return cssRects.get(index).clone();
+        }
+
+        /** Element rect in screenshot pixels, clamped to the image. */
+        public Rect deviceRect(int index, Mat image) {
+            double[] r = cssRects.get(index);
+            int x = (int) Math.round(r[0] * dpr);
+            int y = (int) Math.round(r[1] * dpr);
+            int w = (int) Math.round(r[2] * dpr);
+            int h = (int) Math.round(r[3] * dpr);
+
+            // Clamp to image
+            x = Math.max(0, Math.min(x, image.cols() - 1));
+            y = Math.max(0, Math.min(y, image.rows() - 1));
+            w = Math.max(1, Math.min(w, image.cols() - x));
+            h = Math.max(1, Math.min(h, image.rows() - y));
+            return new Rect(x, y, w, h);
         }
-        //saveElementScreenshotDirect(el, withTimestamp("element_" + el.getTagName()));
-        return copy;
     }
 
     public static String withTimestamp(String base) {
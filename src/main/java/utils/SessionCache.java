@@ -0,0 +1,148 @@
+package utils;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-worker cache of an authenticated browser session, so scenarios that are not about login can
+ * skip the login form. A snapshot holds the cookies plus local/session storage captured right after a
+ * UI login; {@link #restore} injects it into a fresh (or pooled) browser and opens the landing page.
+ *
+ * Snapshots are kept per worker thread and user. One is dropped when it is older than
+ * {@code session.cache.ttl.ms} (default 600000), when a session cookie has expired, or when the app
+ * redirects the restored browser to its login page. Disable with -Dsession.cache=false.
+ */
+public final class SessionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCache.class);
+
+    private static final ThreadLocal<Map<String, Snapshot>> SNAPSHOTS = ThreadLocal.withInitial(HashMap::new);
+
+    private static final String LOGIN_PATH = "/auth/login";
+
+    private static final String READ_STORAGE =
+            "var read = function (s) { var o = {}; try { for (var i = 0; i < s.length; i++) {" +
+            "  var k = s.key(i); o[k] = s.getItem(k); } } catch (e) {} return o; };" +
+            "return [read(window.localStorage), read(window.sessionStorage)];";
+
+    private static final String WRITE_STORAGE =
+            "var write = function (s, o) { try { for (var k in o) { s.setItem(k, o[k]); } } catch (e) {} };" +
+            "write(window.localStorage, arguments[0]); write(window.sessionStorage, arguments[1]);";
+
+    private SessionCache() {
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("session.cache", "true"));
+    }
+
+    /** Records the session of a browser that has just logged in as {@code user}. */
+    @SuppressWarnings("unchecked")
+    public static void capture(WebDriver driver, String user) {
+        if (!enabled()) return;
+        String landingUrl = driver.getCurrentUrl();
+        if (landingUrl == null || landingUrl.contains(LOGIN_PATH)) {
+            logger.warn("Not caching session for {}: still on the login page", user);
+            return;
+        }
+        List<Object> storage = (List<Object>) ((JavascriptExecutor) driver).executeScript(READ_STORAGE);
+        Snapshot snapshot = new Snapshot(landingUrl, new LinkedHashSet<>(driver.manage().getCookies()),
+                (Map<String, Object>) storage.get(0), (Map<String, Object>) storage.get(1));
+        SNAPSHOTS.get().put(user, snapshot);
+        logger.info("Cached session for {} ({} cookies) on {}", user, snapshot.cookies.size(),
+                Thread.currentThread().getName());
+    }
+
+    /**
+     * Injects this worker's snapshot for {@code user} into {@code driver} and opens the landing page.
+     * Returns false (and forgets the snapshot) when there is none or the app no longer accepts it;
+     * the caller then logs in through the form.
+     */
+    public static boolean restore(WebDriver driver, String user) {
+        if (!enabled()) return false;
+        Snapshot snapshot = SNAPSHOTS.get().get(user);
+        if (snapshot == null) return false;
+        if (!snapshot.isFresh()) {
+            invalidate(user, "expired");
+            return false;
+        }
+
+        long start = System.nanoTime();
+        // Cookies and storage can only be set for the document's own origin
+        String current = driver.getCurrentUrl();
+        if (current == null || !sameOrigin(current, snapshot.landingUrl)) {
+            driver.get(origin(snapshot.landingUrl));
+        }
+        driver.manage().deleteAllCookies();
+        for (Cookie cookie : snapshot.cookies) {
+            driver.manage().addCookie(cookie);
+        }
+        ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE, snapshot.localStorage, snapshot.sessionStorage);
+        driver.get(snapshot.landingUrl);
+
+        String url = driver.getCurrentUrl();
+        if (url == null || url.contains(LOGIN_PATH)) {
+            invalidate(user, "redirected to login");
+            return false;
+        }
+        logger.info("Restored cached session for {} in {} ms", user, (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    public static void invalidate(String user, String reason) {
+        if (SNAPSHOTS.get().remove(user) != null) {
+            logger.info("Dropped cached session for {} ({})", user, reason);
+        }
+    }
+
+    private static boolean sameOrigin(String a, String b) {
+        return origin(a).equalsIgnoreCase(origin(b));
+    }
+
+    private static String origin(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getAuthority() + "/";
+    }
+
+    private static final class Snapshot {
+        final String landingUrl;
+        final Set<Cookie> cookies;
+        final Map<String, Object> localStorage;
+        final Map<String, Object> sessionStorage;
+        final long capturedAt = System.currentTimeMillis();
+
+        Snapshot(String landingUrl, Set<Cookie> cookies, Map<String, Object> localStorage,
+                 Map<String, Object> sessionStorage) {
+            this.landingUrl = landingUrl;
+            this.cookies = Collections.unmodifiableSet(cookies);
+            this.localStorage = localStorage != null ? localStorage : Collections.emptyMap();
+            this.sessionStorage = sessionStorage != null ? sessionStorage : Collections.emptyMap();
+        }
+
+        boolean isFresh() {
+            long now = System.currentTimeMillis();
+            if (now - capturedAt > Long.getLong("session.cache.ttl.ms", 600000L)) {
+                return false;
+            }
+            Date current = new Date(now);
+            for (Cookie cookie : cookies) {
+                if (cookie.getExpiry() != null && cookie.getExpiry().before(current)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package utils;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Process-wide cache of baseline templates, pre-processed once into the
+ * grayscale (+ optional blur) scale pyramid used by {@link VisualAssert} and {@link OpenCVUtil}.
+ *
+ * Entries are keyed by path, mtime, blur kernel and scale set, bounded in size and evicted LRU.
+ * Callers {@link #acquire} a {@link Pyramid} and must {@link Pyramid#close()} it when done;
+ * native memory of an evicted entry is only released once no caller holds it any more.
+ */
+public class TemplateCache {
+
+    /** Downsampling factor between a level and its coarse copy. */
+    public static final int COARSE_FACTOR = 2;
+
+    private static final TemplateCache SHARED =
+            new TemplateCache(Integer.getInteger("visual.template.cache.size", 32));
+
+    public static TemplateCache shared() {
+        return SHARED;
+    }
+
+    private final int maxEntries;
+
+    // Guarded by "this"; access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Pyramid> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public TemplateCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("TemplateCache: maxEntries must be > 0, got " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the pre-built pyramid for the template, decoding and building it on a miss.
+     * Scales follow the same max -> min stepping as {@link VisualAssert#matchTemplateMultiScale}.
+     */
+    public Pyramid acquire(String templatePath, int blurKsize,
+                           double maxScale, double minScale, double step) {
+        if (maxScale <= 0 || minScale <= 0 || step <= 0 || maxScale < minScale) {
+            throw new IllegalArgumentException("Invalid scales: maxScale=" + maxScale +
+                    ", minScale=" + minScale + ", step=" + step);
+        }
+        File file = new File(templatePath).getAbsoluteFile();
+        Key key = new Key(file.getPath(), file.lastModified(), blurKsize, maxScale, minScale, step);
+
+        synchronized (this) {
+            Pyramid cached = entries.get(key);
+            if (cached != null) {
+                cached.refCount++;
+                return cached;
+            }
+        }
+
+        // Build outside the lock so hits on other templates are not blocked by a decode
+        Pyramid built = build(key, templatePath);
+
+        synchronized (this) {
+            Pyramid raced = entries.get(key);
+            if (raced != null) {
+                built.releaseNative();
+                raced.refCount++;
+                return raced;
+            }
+            // A newer mtime supersedes any older build of the same file
+            Iterator<Map.Entry<Key, Pyramid>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Pyramid> e = it.next();
+                if (e.getKey().path.equals(key.path) && e.getKey().mtime != key.mtime) {
+                    it.remove();
+                    retire(e.getValue());
+                }
+            }
+            built.refCount++;
+            entries.put(key, built);
+            evictOverflow();
+            return built;
+        }
+    }
+
+    /** Drops every cached pyramid of the given template path. */
+    public synchronized void invalidate(String templatePath) {
+        String path = new File(templatePath).getAbsoluteFile().getPath();
+        Iterator<Map.Entry<Key, Pyramid>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Pyramid> e = it.next();
+            if (e.getKey().path.equals(path)) {
+                it.remove();
+                retire(e.getValue());
+            }
+        }
+    }
+
+    /** Drops every entry; native memory is freed now or when the last holder closes it. */
+    public synchronized void clear() {
+        for (Pyramid p : entries.values()) {
+            retire(p);
+        }
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Bytes of native Mat data currently held by cached pyramids. */
+    public synchronized long nativeBytes() {
+        long total = 0;
+        for (Pyramid p : entries.values()) {
+            total += p.nativeBytes();
+        }
+        return total;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, Pyramid>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Pyramid eldest = it.next().getValue();
+            it.remove();
+            retire(eldest);
+        }
+    }
+
+    private void retire(Pyramid p) {
+        p.evicted = true;
+        if (p.refCount == 0) {
+            p.releaseNative();
+        }
+    }
+
+    private synchronized void release(Pyramid p) {
+        if (p.refCount <= 0) {
+            throw new IllegalStateException("TemplateCache: pyramid closed more often than acquired: " + p.path);
+        }
+        p.refCount--;
+        if (p.refCount == 0 && p.evicted) {
+            p.releaseNative();
+        }
+    }
+
+    private Pyramid build(Key key, String templatePath) {
+        Mat bgr = BaselineStore.read(templatePath, Imgcodecs.IMREAD_COLOR);
+        if (bgr.empty()) {
+            bgr.release();
+            throw new RuntimeException("[ERROR] Template not loaded: " + templatePath);
+        }
+
+        Mat gray = new Mat();
+        List<Level> levels = new ArrayList<>();
+        try {
+            Imgproc.cvtColor(bgr, gray, Imgproc.COLOR_BGR2GRAY);
+
+            // Same stepping as the exhaustive loop, so cached and uncached searches agree
+            for (double scale = key.maxScale; scale >= key.minScale; scale -= key.step) {
+                int w = (int) Math.round(bgr.cols() * scale);
+                int h = (int) Math.round(bgr.rows() * scale);
+                if (w < 5 || h < 5) break;
+
+                Mat scaled = new Mat();
+                if (w == gray.cols() && h == gray.rows()) {
+                    gray.copyTo(scaled);
+                } else {
+                    Imgproc.resize(gray, scaled, new Size(w, h), 0, 0, Imgproc.INTER_AREA);
+                }
+                if (key.blurKsize >= 3 && (key.blurKsize % 2 == 1)) {
+                    Imgproc.GaussianBlur(scaled, scaled, new Size(key.blurKsize, key.blurKsize), 0);
+                }
+                levels.add(new Level(scale, scaled, coarse(scaled)));
+            }
+        } finally {
+            gray.release();
+        }
+
+        Pyramid p = new Pyramid(this, key.path, key.blurKsize, bgr.size(), levels);
+        bgr.release();
+        return p;
+    }
+
+    /** Half-resolution copy used by the coarse pass, or null when it would be too small to be meaningful. */
+    private static Mat coarse(Mat gray) {
+        int w = gray.cols() / COARSE_FACTOR;
+        int h = gray.rows() / COARSE_FACTOR;
+        if (w < 5 || h < 5) return null;
+        Mat coarse = new Mat();
+        Imgproc.resize(gray, coarse, new Size(w, h), 0, 0, Imgproc.INTER_AREA);
+        return coarse;
+    }
+
+    /**
+     * One pre-processed needle: grayscale, resized to {@link #scale} and blurred.
+     * {@link #coarse} is the same needle downsampled by {@link #COARSE_FACTOR} (may be null).
+     */
+    public static final class Level {
+        public final double scale;
+        public final Mat gray;
+        public final Mat coarse;
+
+        Level(double scale, Mat gray, Mat coarse) {
+            this.scale = scale;
+            this.gray = gray;
+            this.coarse = coarse;
+        }
+    }
+
+    /** Cached pyramid handle; close it to hand it back to the cache. */
+    public static final class Pyramid implements AutoCloseable {
+        public final String path;
+        public final int blurKsize;
+        public final Size originalSize;
+        public final List<Level> levels;
+
+        private final TemplateCache owner;
+        private int refCount;      // guarded by owner
+        private boolean evicted;   // guarded by owner
+        private boolean released;  // guarded by owner
+
+        Pyramid(TemplateCache owner, String path, int blurKsize, Size originalSize, List<Level> levels) {
+            this.owner = owner;
+            this.path = path;
+            this.blurKsize = blurKsize;
+            this.originalSize = originalSize;
+            this.levels = Collections.unmodifiableList(levels);
+        }
+
+        long nativeBytes() {
+            if (released) return 0;
+            long total = 0;
+            for (Level l : levels) {
+                total += l.gray.total() * l.gray.elemSize();
+                if (l.coarse != null) total += l.coarse.total() * l.coarse.elemSize();
+            }
+            return total;
+        }
+
+        void releaseNative() {
+            if (released) return;
+            released = true;
+            for (Level l : levels) {
+                l.gray.release();
+                if (l.coarse != null) l.coarse.release();
+            }
+        }
+
+        @Override
+        public void close() {
+            owner.release(this);
+        }
+    }
+
+    private static final class Key {
+        final String path;
+        final long mtime;
+        final int blurKsize;
+        final double maxScale;
+        final double minScale;
+        final double step;
+
+        Key(String path, long mtime, int blurKsize, double maxScale, double minScale, double step) {
+            this.path = path;
+            this.mtime = mtime;
+            this.blurKsize = blurKsize;
+            this.maxScale = maxScale;
+            this.minScale = minScale;
+            this.step = step;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return mtime == k.mtime && blurKsize == k.blurKsize
+                    && Double.compare(maxScale, k.maxScale) == 0
+                    && Double.compare(minScale, k.minScale) == 0
+                    && Double.compare(step, k.step) == 0
+                    && path.equals(k.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, mtime, blurKsize, maxScale, minScale, step);
+        }
+    }
+}
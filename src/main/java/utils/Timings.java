@@ -0,0 +1,230 @@
+package utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Low-overhead timing of page-object actions (waits, typing, clicks, screenshots, OpenCV matches,
+ * Excel reads). Each action is a nanoTime span recorded into a per-name histogram with log-linear
+ * buckets (16 per power of two, about 6% precision, like HdrHistogram with 1 significant digit),
+ * so p50/p95/p99 stay cheap to record and to compute.
+ *
+ * <pre>
+ * try (Timings.Span ignored = Timings.start("login.click")) {
+ *     clickOn(loginButton);
+ * }
+ * </pre>
+ *
+ * Results are written as timings.json and timings.csv to {@code timings.output.dir}
+ * (default target/site/serenity) by {@link #export()}, which also runs on JVM exit.
+ * Disable with -Dtimings.enabled=false.
+ */
+public final class Timings {
+
+    private static final Logger logger = LoggerFactory.getLogger(Timings.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("timings.enabled", "true"));
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean HOOK_INSTALLED = new AtomicBoolean();
+
+    private static final Span NOOP = new Span(null, 0L);
+
+    private Timings() {
+    }
+
+    /** Starts a span; closing it records the elapsed time under {@code name}. */
+    public static Span start(String name) {
+        if (!ENABLED) {
+            return NOOP;
+        }
+        return new Span(name, System.nanoTime());
+    }
+
+    public static <T> T time(String name, Supplier<T> action) {
+        try (Span ignored = start(name)) {
+            return action.get();
+        }
+    }
+
+    public static void time(String name, Runnable action) {
+        try (Span ignored = start(name)) {
+            action.run();
+        }
+    }
+
+    /** Records an externally measured duration. */
+    public static void record(String name, long nanos) {
+        if (!ENABLED) return;
+        Histogram h = HISTOGRAMS.get(name);
+        if (h == null) {
+            h = HISTOGRAMS.computeIfAbsent(name, k -> new Histogram());
+            if (HOOK_INSTALLED.compareAndSet(false, true)) {
+                Runtime.getRuntime().addShutdownHook(new Thread(Timings::export, "timings-export"));
+            }
+        }
+        h.record(nanos);
+    }
+
+    /** Writes timings.json and timings.csv; returns the JSON path, or null when nothing was recorded. */
+    public static synchronized Path export() {
+        if (HISTOGRAMS.isEmpty()) {
+            return null;
+        }
+        Path dir = Paths.get(System.getProperty("timings.output.dir", "target/site/serenity"));
+        Map<String, Histogram> sorted = new TreeMap<>(HISTOGRAMS);
+
+        JSONArray steps = new JSONArray();
+        StringBuilder csv = new StringBuilder("step,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+        for (Map.Entry<String, Histogram> e : sorted.entrySet()) {
+            Histogram h = e.getValue();
+            long count = h.count();
+            if (count == 0) continue;
+            JSONObject step = new JSONObject();
+            step.put("step", e.getKey());
+            step.put("count", count);
+            step.put("meanMs", ms(h.meanNanos()));
+            step.put("p50Ms", ms(h.percentileNanos(50)));
+            step.put("p95Ms", ms(h.percentileNanos(95)));
+            step.put("p99Ms", ms(h.percentileNanos(99)));
+            step.put("maxMs", ms(h.maxNanos()));
+            steps.put(step);
+            csv.append(String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                    e.getKey().replace(',', ';'), count, ms(h.meanNanos()), ms(h.percentileNanos(50)),
+                    ms(h.percentileNanos(95)), ms(h.percentileNanos(99)), ms(h.maxNanos())));
+        }
+        JSONObject root = new JSONObject();
+        root.put("generated", java.time.Instant.now().toString());
+        root.put("steps", steps);
+
+        try {
+            Files.createDirectories(dir);
+            Path json = dir.resolve("timings.json");
+            Files.write(json, root.toString(2).getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("timings.csv"), csv.toString().getBytes(StandardCharsets.UTF_8));
+            logger.info("Wrote {} step histograms to {}", sorted.size(), json.toAbsolutePath());
+            return json;
+        } catch (IOException e) {
+            logger.warn("Could not write timings to {}: {}", dir.toAbsolutePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    /** One line per step: count and p50/p95/p99 in ms. */
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            Histogram h = e.getValue();
+            sb.append(String.format(Locale.ROOT, "%-40s n=%-5d p50=%.1f p95=%.1f p99=%.1f ms%n", e.getKey(), h.count(),
+                    ms(h.percentileNanos(50)), ms(h.percentileNanos(95)), ms(h.percentileNanos(99))));
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        HISTOGRAMS.clear();
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /** Open timing span; not thread-safe, close it on the thread that started it. */
+    public static final class Span implements AutoCloseable {
+        private final String name;
+        private final long start;
+        private boolean closed;
+
+        private Span(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            if (name == null || closed) return;
+            closed = true;
+            record(name, System.nanoTime() - start);
+        }
+    }
+
+    /** Concurrent log-linear histogram of durations, resolution 1 microsecond. */
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB);
+        private final LongAdder total = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+        void record(long nanos) {
+            long micros = Math.max(0L, nanos / 1000);
+            counts.incrementAndGet(index(micros));
+            total.increment();
+            sumNanos.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        long count() {
+            return total.sum();
+        }
+
+        long meanNanos() {
+            long n = total.sum();
+            return n == 0 ? 0 : sumNanos.sum() / n;
+        }
+
+        long maxNanos() {
+            return max.get();
+        }
+
+        long percentileNanos(double percentile) {
+            long n = total.sum();
+            if (n == 0) return 0;
+            long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= target) {
+                    return Math.min(max.get(), midpointMicros(i) * 1000);
+                }
+            }
+            return max.get();
+        }
+
+        static int index(long micros) {
+            if (micros < SUB) {
+                return (int) micros;
+            }
+            int exp = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >>> (exp - SUB_BITS)) & (SUB - 1));
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        static long midpointMicros(int index) {
+            if (index < SUB) {
+                return index;
+            }
+            int shift = index / SUB - 1;
+            long lower = (long) (SUB + index % SUB) << shift;
+            return lower + ((1L << shift) >> 1);
+        }
+    }
+}
@@ -7,6 +7,15 @@ import org.opencv.imgproc.Imgproc;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class VisualAssert {
 
@@ -23,22 +32,121 @@ public class VisualAssert {
         public final double score; // 0..1 (higher is better for TM_CCOEFF_NORMED)
         public final Point topLeft;
         public final Rect location;
+        public final long elapsedNanos; // time spent locating (and acting on) the match; 0 when not measured
 
         TemplateResult(double score, Point topLeft, Rect location) {
+            this(score, topLeft, location, 0L);
+        }
+
+        TemplateResult(double score, Point topLeft, Rect location, long elapsedNanos) {
             this.score = score;
             this.topLeft = topLeft;
             this.location = location;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        TemplateResult withElapsed(long nanos) {
+            return new TemplateResult(score, topLeft, location, nanos);
+        }
+
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        /** Centre of the match in haystack pixels. */
+        public Point center() {
+            return new Point(location.x + location.width / 2.0, location.y + location.height / 2.0);
         }
     }
 
+    // Defaults tuned for common DPR/viewports
+    static final double DEFAULT_MAX_SCALE = 1.0; // try original size first
+    static final double DEFAULT_MIN_SCALE = 0.35; // go down to 35%
+    static final double DEFAULT_STEP = 0.05; // in 5% decrements
+    static final int DEFAULT_BLUR_KSIZE = 3; // Gaussian blur kernel (use 0 to skip)
+
     public static TemplateResult matchTemplate(Mat haystackBgr, Mat needleBgr) {
-        // Defaults tuned for common DPR/viewports
-        double maxScale = 1.0; // try original size first
-        double minScale = 0.35; // go down to 35%
-        double step = 0.05; // in 5% decrements
-        int blurKsize = 3; // Gaussian blur kernel (use 0 to skip)
+        return matchTemplateMultiScale(haystackBgr, needleBgr,
+                DEFAULT_MAX_SCALE, DEFAULT_MIN_SCALE, DEFAULT_STEP, DEFAULT_BLUR_KSIZE);
+    }
+
+    /**
+     * Same search as {@link #matchTemplate(Mat, Mat)}, but the baseline is taken from the shared
+     * {@link TemplateCache}, so only the haystack is converted/blurred per call.
+     */
+    public static TemplateResult matchTemplate(Mat haystackBgr, String templatePath) {
+        try (TemplateCache.Pyramid pyramid = TemplateCache.shared().acquire(templatePath,
+                DEFAULT_BLUR_KSIZE, DEFAULT_MAX_SCALE, DEFAULT_MIN_SCALE, DEFAULT_STEP)) {
+            return matchTemplateMultiScale(haystackBgr, pyramid);
+        }
+    }
+
+    public enum SearchMode {
+        /** Full-resolution correlation at every scale step. */
+        EXHAUSTIVE,
+        /** Half-resolution pass over all scales, full-resolution refinement around the top peaks only. */
+        COARSE_TO_FINE,
+        /**
+         * Same result as EXHAUSTIVE, with scale steps evaluated concurrently on {@link OpenCVWorkers}.
+         * Only faster with cores to spare beyond OpenCV's own threads (see OpenCVWorkers#configureNativeThreads).
+         */
+        PARALLEL
+    }
+
+    /** Number of coarse peaks refined at full resolution by {@link SearchMode#COARSE_TO_FINE}. */
+    static final int COARSE_TOP_K = 3;
+
+    /**
+     * Cached-baseline search with an explicit mode. For {@link SearchMode#COARSE_TO_FINE} refinement
+     * stops as soon as a peak reaches {@code threshold} (pass {@link Double#MAX_VALUE} to refine every peak).
+     * A haystack that hashes close to one that already passed returns that run's result without
+     * matching (see {@link HashPrefilter}); otherwise the learned region is searched before the full
+     * frame (see {@link RegionHint}). Passing matches are learned for next time.
+     */
+    public static TemplateResult matchTemplate(Mat haystackBgr, String templatePath,
+                                               SearchMode mode, double threshold) {
+        try (Timings.Span ignored = Timings.start("opencv match " + mode)) {
+            return matchTemplateTimed(haystackBgr, templatePath, mode, threshold);
+        }
+    }
+
+    private static TemplateResult matchTemplateTimed(Mat haystackBgr, String templatePath,
+                                                     SearchMode mode, double threshold) {
+        requireHaystack(haystackBgr);
+        boolean prefilter = HashPrefilter.enabled();
+        long hash = 0L;
+        if (prefilter) {
+            hash = PerceptualHash.dHash(haystackBgr);
+            TemplateResult known = HashPrefilter.lookup(hash, haystackBgr, templatePath, threshold);
+            if (known != null) {
+                return known;
+            }
+        }
 
-        return matchTemplateMultiScale(haystackBgr, needleBgr, maxScale, minScale, step, blurKsize);
+        TemplateResult result;
+        try (TemplateCache.Pyramid pyramid = TemplateCache.shared().acquire(templatePath,
+                DEFAULT_BLUR_KSIZE, DEFAULT_MAX_SCALE, DEFAULT_MIN_SCALE, DEFAULT_STEP)) {
+            // Learned region first, full frame only if that does not pass
+            result = RegionHint.search(haystackBgr, templatePath, threshold,
+                    hay -> search(hay, pyramid, mode, threshold));
+        }
+        if (prefilter && result.score >= threshold) {
+            HashPrefilter.learn(hash, haystackBgr, templatePath, result);
+        }
+        return result;
+    }
+
+    private static TemplateResult search(Mat haystackBgr, TemplateCache.Pyramid pyramid,
+                                         SearchMode mode, double threshold) {
+        switch (mode) {
+            case COARSE_TO_FINE:
+                return matchTemplateCoarseToFine(haystackBgr, pyramid, COARSE_TOP_K, threshold);
+            case PARALLEL:
+                return matchTemplateParallel(haystackBgr, pyramid);
+            case EXHAUSTIVE:
+            default:
+                return matchTemplateMultiScale(haystackBgr, pyramid);
+        }
     }
 
     public static TemplateResult matchTemplateMultiScale(Mat haystackBgr,
@@ -47,10 +155,7 @@ public class VisualAssert {
                                                          double minScale,
                                                          double step,
                                                          int blurKsize) {
-        if (haystackBgr == null || haystackBgr.empty()) {
-            throw new IllegalArgumentException("matchTemplateMultiScale: haystackBgr is empty/null. " +
-                    "Check screenshot capture or image read path.");
-        }
+        requireHaystack(haystackBgr);
         if (needleBgr == null || needleBgr.empty()) {
             throw new IllegalArgumentException("matchTemplateMultiScale: needleBgr is empty/null. " +
                     "Make sure your fragment/baseline exists and path is correct.");
@@ -60,54 +165,42 @@ public class VisualAssert {
                     ", minScale=" + minScale + ", step=" + step);
         }
 
-        // Pre-convert haystack to grayscale (+ optional blur) once
-        Mat hayGray = new Mat();
-        Imgproc.cvtColor(haystackBgr, hayGray, Imgproc.COLOR_BGR2GRAY);
-        if (blurKsize >= 3 && (blurKsize % 2 == 1)) {
-            Imgproc.GaussianBlur(hayGray, hayGray, new Size(blurKsize, blurKsize), 0);
-        }
-
         double bestScore = -1.0;
         Point bestTopLeft = null;
         Rect bestRect = null;
 
-        // Iterate scales from max -> min (downscale the needle until it fits)
-        for (double scale = maxScale; scale >= minScale; scale -= step) {
-            int w = (int) Math.round(needleBgr.cols() * scale);
-            int h = (int) Math.round(needleBgr.rows() * scale);
+        try (MatArena arena = MatArena.open()) {
+            // Pre-convert haystack to grayscale (+ optional blur) once
+            Mat hayGray = arena.track(toGray(haystackBgr, blurKsize));
 
-            // Skip too small (meaningless template)
-            if (w < 5 || h < 5) break;
+            // Iterate scales from max -> min (downscale the needle until it fits)
+            for (double scale = maxScale; scale >= minScale; scale -= step) {
+                int w = (int) Math.round(needleBgr.cols() * scale);
+                int h = (int) Math.round(needleBgr.rows() * scale);
 
-            // Skip if still larger than haystack
-            if (w > hayGray.cols() || h > hayGray.rows()) continue;
+                // Skip too small (meaningless template)
+                if (w < 5 || h < 5) break;
 
-            // Prepare scaled needle grayscale (+ optional blur)
-            Mat scaled = new Mat();
-            Imgproc.resize(needleBgr, scaled, new Size(w, h), 0, 0, Imgproc.INTER_AREA);
+                // Skip if still larger than haystack
+                if (w > hayGray.cols() || h > hayGray.rows()) continue;
 
-            Mat neeGray = new Mat();
-            Imgproc.cvtColor(scaled, neeGray, Imgproc.COLOR_BGR2GRAY);
-            if (blurKsize >= 3 && (blurKsize % 2 == 1)) {
-                Imgproc.GaussianBlur(neeGray, neeGray, new Size(blurKsize, blurKsize), 0);
-            }
+                // Per-scale temporaries are released before the next scale is prepared
+                try (MatArena perScale = MatArena.open()) {
+                    // Prepare scaled needle grayscale (+ optional blur)
+                    Mat scaled = perScale.newMat();
+                    Imgproc.resize(needleBgr, scaled, new Size(w, h), 0, 0, Imgproc.INTER_AREA);
 
-            int resRows = hayGray.rows() - neeGray.rows() + 1;
-            int resCols = hayGray.cols() - neeGray.cols() + 1;
-            if (resRows <= 0 || resCols <= 0) continue;
+                    Mat neeGray = perScale.track(toGray(scaled, blurKsize));
 
-            Mat result = new Mat(resRows, resCols, CvType.CV_32FC1);
-            Imgproc.matchTemplate(hayGray, neeGray, result, Imgproc.TM_CCOEFF_NORMED);
+                    Core.MinMaxLocResult mmr = matchLevel(hayGray, neeGray);
+                    if (mmr == null) continue;
 
-            Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
-            double score = mmr.maxVal;
-            Point topLeft = mmr.maxLoc;
-            Rect rect = new Rect(topLeft, new Size(neeGray.cols(), neeGray.rows()));
-
-            if (score > bestScore) {
-                bestScore = score;
-                bestTopLeft = topLeft;
-                bestRect = rect;
+                    if (mmr.maxVal > bestScore) {
+                        bestScore = mmr.maxVal;
+                        bestTopLeft = mmr.maxLoc;
+                        bestRect = new Rect(mmr.maxLoc, new Size(neeGray.cols(), neeGray.rows()));
+                    }
+                }
             }
         }
 
@@ -115,26 +208,352 @@ public class VisualAssert {
             // Optional: dump artifacts to debug quickly
             // Imgcodecs.imwrite("artifacts/haystack.png", haystackBgr);
             // Imgcodecs.imwrite("artifacts/needle.png", needleBgr);
-            throw new IllegalArgumentException(
-                    "matchTemplateMultiScale: no feasible scale found where needle fits haystack. " +
-                            "haystack=" + haystackBgr.size() + ", needle=" + needleBgr.size()
-            );
+            throw noFeasibleScale(haystackBgr.size(), needleBgr.size());
         }
 
         return new TemplateResult(bestScore, bestTopLeft, bestRect);
     }
 
+    /** Exhaustive multi-scale search against a cached, pre-processed needle pyramid. */
+    public static TemplateResult matchTemplateMultiScale(Mat haystackBgr, TemplateCache.Pyramid pyramid) {
+        requireHaystack(haystackBgr);
+
+        double bestScore = -1.0;
+        Point bestTopLeft = null;
+        Rect bestRect = null;
+
+        try (MatArena arena = MatArena.open()) {
+            Mat hayGray = arena.track(toGray(haystackBgr, pyramid.blurKsize));
+
+            for (TemplateCache.Level level : pyramid.levels) {
+                Mat neeGray = level.gray;
+                // Skip if still larger than haystack
+                if (neeGray.cols() > hayGray.cols() || neeGray.rows() > hayGray.rows()) continue;
+
+                Core.MinMaxLocResult mmr = matchLevel(hayGray, neeGray);
+                if (mmr == null) continue;
+
+                if (mmr.maxVal > bestScore) {
+                    bestScore = mmr.maxVal;
+                    bestTopLeft = mmr.maxLoc;
+                    bestRect = new Rect(mmr.maxLoc, new Size(neeGray.cols(), neeGray.rows()));
+                }
+            }
+        }
+
+        if (bestRect == null) {
+            throw noFeasibleScale(haystackBgr.size(), pyramid.originalSize);
+        }
+
+        return new TemplateResult(bestScore, bestTopLeft, bestRect);
+    }
+
+    /**
+     * Coarse-to-fine search: every scale is correlated on the half-resolution haystack/needle pair,
+     * then only the {@code topK} best peaks are re-scored at full resolution inside a small window.
+     * Levels too small to downsample are scored at full resolution straight away.
+     */
+    public static TemplateResult matchTemplateCoarseToFine(Mat haystackBgr,
+                                                           TemplateCache.Pyramid pyramid,
+                                                           int topK,
+                                                           double earlyExitScore) {
+        requireHaystack(haystackBgr);
+        if (topK <= 0) {
+            throw new IllegalArgumentException("matchTemplateCoarseToFine: topK must be > 0, got " + topK);
+        }
+        int factor = TemplateCache.COARSE_FACTOR;
+
+        double bestScore = -1.0;
+        Point bestTopLeft = null;
+        Rect bestRect = null;
+
+        try (MatArena arena = MatArena.open()) {
+            Mat hayGray = arena.track(toGray(haystackBgr, pyramid.blurKsize));
+            Mat hayCoarse = arena.newMat();
+            Imgproc.resize(hayGray, hayCoarse,
+                    new Size(hayGray.cols() / factor, hayGray.rows() / factor), 0, 0, Imgproc.INTER_AREA);
+
+            // 1) Coarse pass over all scales
+            List<Candidate> candidates = new ArrayList<>();
+            for (TemplateCache.Level level : pyramid.levels) {
+                Mat neeGray = level.gray;
+                if (neeGray.cols() > hayGray.cols() || neeGray.rows() > hayGray.rows()) continue;
+
+                if (level.coarse == null
+                        || level.coarse.cols() > hayCoarse.cols() || level.coarse.rows() > hayCoarse.rows()) {
+                    Core.MinMaxLocResult mmr = matchLevel(hayGray, neeGray);
+                    if (mmr != null && mmr.maxVal > bestScore) {
+                        bestScore = mmr.maxVal;
+                        bestTopLeft = mmr.maxLoc;
+                        bestRect = new Rect(mmr.maxLoc, new Size(neeGray.cols(), neeGray.rows()));
+                    }
+                    continue;
+                }
+
+                Core.MinMaxLocResult mmr = matchLevel(hayCoarse, level.coarse);
+                if (mmr != null) {
+                    candidates.add(new Candidate(level, mmr.maxVal,
+                            (int) mmr.maxLoc.x * factor, (int) mmr.maxLoc.y * factor));
+                }
+            }
+
+            // 2) Refine the best coarse peaks at full resolution
+            candidates.sort((a, b) -> Double.compare(b.coarseScore, a.coarseScore));
+            int margin = 4 * factor;
+            for (int i = 0; i < Math.min(topK, candidates.size()); i++) {
+                if (bestScore >= earlyExitScore) break;
+
+                Candidate c = candidates.get(i);
+                Mat neeGray = c.level.gray;
+                int x0 = Math.max(0, c.x - margin);
+                int y0 = Math.max(0, c.y - margin);
+                int x1 = Math.min(hayGray.cols(), c.x + neeGray.cols() + margin);
+                int y1 = Math.min(hayGray.rows(), c.y + neeGray.rows() + margin);
+
+                Mat window = arena.track(hayGray.submat(y0, y1, x0, x1));
+                Core.MinMaxLocResult mmr = matchLevel(window, neeGray);
+                if (mmr != null && mmr.maxVal > bestScore) {
+                    bestScore = mmr.maxVal;
+                    bestTopLeft = new Point(mmr.maxLoc.x + x0, mmr.maxLoc.y + y0);
+                    bestRect = new Rect(bestTopLeft, new Size(neeGray.cols(), neeGray.rows()));
+                }
+            }
+        }
+
+        if (bestRect == null) {
+            throw noFeasibleScale(haystackBgr.size(), pyramid.originalSize);
+        }
+
+        return new TemplateResult(bestScore, bestTopLeft, bestRect);
+    }
+
+    /**
+     * Exhaustive search with one task per scale on the shared {@link OpenCVWorkers} pool.
+     * The grayscale haystack is read-only and shared; each worker writes into its own reusable
+     * result buffer. Reduction keeps the first best score in scale order, like the sequential loop.
+     */
+    public static TemplateResult matchTemplateParallel(Mat haystackBgr, TemplateCache.Pyramid pyramid) {
+        requireHaystack(haystackBgr);
+
+        TemplateResult best = null;
+        try (MatArena arena = MatArena.open()) {
+            Mat hayGray = arena.track(toGray(haystackBgr, pyramid.blurKsize));
+
+            List<Future<TemplateResult>> futures = new ArrayList<>();
+            try {
+                for (TemplateCache.Level level : pyramid.levels) {
+                    Mat neeGray = level.gray;
+                    if (neeGray.cols() > hayGray.cols() || neeGray.rows() > hayGray.rows()) continue;
+                    futures.add(OpenCVWorkers.pool().submit(() -> matchLevelBuffered(hayGray, neeGray)));
+                }
+                for (Future<TemplateResult> f : futures) {
+                    TemplateResult tr = f.get();
+                    if (tr != null && (best == null || tr.score > best.score)) {
+                        best = tr;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("matchTemplateParallel: interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("matchTemplateParallel: scale evaluation failed: " + e.getCause(), e.getCause());
+            } finally {
+                // Workers read hayGray natively; it must outlive every submitted task
+                awaitQuietly(futures);
+            }
+        }
+
+        if (best == null) {
+            throw noFeasibleScale(haystackBgr.size(), pyramid.originalSize);
+        }
+        return best;
+    }
+
+    private static void awaitQuietly(List<? extends Future<?>> futures) {
+        boolean interrupted = false;
+        for (Future<?> f : futures) {
+            // No cancel(): a cancelled FutureTask reports done while its worker may still be running
+            while (!f.isDone()) {
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (Exception ignored) {
+                    // Failure already surfaced through the first get()
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TemplateResult matchLevelBuffered(Mat hayGray, Mat neeGray) {
+        int resRows = hayGray.rows() - neeGray.rows() + 1;
+        int resCols = hayGray.cols() - neeGray.cols() + 1;
+        if (resRows <= 0 || resCols <= 0) return null;
+
+        Mat result = OpenCVWorkers.resultBuffer(resRows, resCols).submat(0, resRows, 0, resCols);
+        try {
+            Imgproc.matchTemplate(hayGray, neeGray, result, Imgproc.TM_CCOEFF_NORMED);
+            Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+            return new TemplateResult(mmr.maxVal, mmr.maxLoc,
+                    new Rect(mmr.maxLoc, new Size(neeGray.cols(), neeGray.rows())));
+        } finally {
+            result.release();
+        }
+    }
+
+    private static final class Candidate {
+        final TemplateCache.Level level;
+        final double coarseScore;
+        final int x;
+        final int y;
+
+        Candidate(TemplateCache.Level level, double coarseScore, int x, int y) {
+            this.level = level;
+            this.coarseScore = coarseScore;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    static Mat toGray(Mat bgr, int blurKsize) {
+        Mat gray = new Mat();
+        Imgproc.cvtColor(bgr, gray, Imgproc.COLOR_BGR2GRAY);
+        if (blurKsize >= 3 && (blurKsize % 2 == 1)) {
+            Imgproc.GaussianBlur(gray, gray, new Size(blurKsize, blurKsize), 0);
+        }
+        return gray;
+    }
+
+    static Core.MinMaxLocResult matchLevel(Mat hayGray, Mat neeGray) {
+        int resRows = hayGray.rows() - neeGray.rows() + 1;
+        int resCols = hayGray.cols() - neeGray.cols() + 1;
+        if (resRows <= 0 || resCols <= 0) return null;
+
+        Mat result = new Mat(resRows, resCols, CvType.CV_32FC1);
+        try {
+            Imgproc.matchTemplate(hayGray, neeGray, result, Imgproc.TM_CCOEFF_NORMED);
+            return Core.minMaxLoc(result);
+        } finally {
+            result.release();
+        }
+    }
+
+    private static void requireHaystack(Mat haystackBgr) {
+        if (haystackBgr == null || haystackBgr.empty()) {
+            throw new IllegalArgumentException("matchTemplateMultiScale: haystackBgr is empty/null. " +
+                    "Check screenshot capture or image read path.");
+        }
+    }
+
+    private static IllegalArgumentException noFeasibleScale(Size haystack, Size needle) {
+        return new IllegalArgumentException(
+                "matchTemplateMultiScale: no feasible scale found where needle fits haystack. " +
+                        "haystack=" + haystack + ", needle=" + needle
+        );
+    }
+
+    /**
+     * Converts to a new CV_8UC3 Mat owned by the caller (release it or track it in a {@link MatArena}).
+     *
+     * Packed-int rasters (INT_ARGB/INT_RGB/INT_BGR, what ImageIO returns for screenshots) are copied once
+     * into a direct buffer that a Mat wraps in place, and the channel drop is a single native cvtColor.
+     * 3BYTE_BGR and 4BYTE_ABGR go straight from the byte raster. Anything else takes the Graphics2D redraw.
+     */
     public static Mat toMat(BufferedImage bi) {
-        if (bi.getType() != BufferedImage.TYPE_3BYTE_BGR) {
-            BufferedImage bgr = new BufferedImage(bi.getWidth(), bi.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-            Graphics2D g = bgr.createGraphics();
-            g.drawImage(bi, 0, 0, null);
-            g.dispose();
-            bi = bgr;
-        }
-        byte[] data = ((DataBufferByte) bi.getRaster().getDataBuffer()).getData();
-        Mat mat = new Mat(bi.getHeight(), bi.getWidth(), CvType.CV_8UC3);
+        int w = bi.getWidth();
+        int h = bi.getHeight();
+        if (isPlainRaster(bi)) {
+            switch (bi.getType()) {
+                case BufferedImage.TYPE_INT_ARGB:
+                case BufferedImage.TYPE_INT_ARGB_PRE:
+                case BufferedImage.TYPE_INT_RGB:
+                    // 0xAARRGGBB little-endian in memory is B,G,R,A
+                    return fromPackedInts(bi, Imgproc.COLOR_BGRA2BGR);
+                case BufferedImage.TYPE_INT_BGR:
+                    // 0x00BBGGRR little-endian in memory is R,G,B,0
+                    return fromPackedInts(bi, Imgproc.COLOR_RGBA2BGR);
+                case BufferedImage.TYPE_4BYTE_ABGR:
+                case BufferedImage.TYPE_4BYTE_ABGR_PRE: {
+                    byte[] data = ((DataBufferByte) bi.getRaster().getDataBuffer()).getData();
+                    Mat abgr = new Mat(h, w, CvType.CV_8UC4);
+                    try {
+                        abgr.put(0, 0, data);
+                        Mat bgr = new Mat(h, w, CvType.CV_8UC3);
+                        // A,B,G,R -> B,G,R
+                        Core.mixChannels(Collections.singletonList(abgr), Collections.singletonList(bgr),
+                                new MatOfInt(1, 0, 2, 1, 3, 2));
+                        return bgr;
+                    } finally {
+                        abgr.release();
+                    }
+                }
+                case BufferedImage.TYPE_3BYTE_BGR: {
+                    byte[] data = ((DataBufferByte) bi.getRaster().getDataBuffer()).getData();
+                    Mat mat = new Mat(h, w, CvType.CV_8UC3);
+                    mat.put(0, 0, data);
+                    return mat;
+                }
+                default:
+                    break;
+            }
+        }
+
+        BufferedImage bgr = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = bgr.createGraphics();
+        g.drawImage(bi, 0, 0, null);
+        g.dispose();
+        byte[] data = ((DataBufferByte) bgr.getRaster().getDataBuffer()).getData();
+        Mat mat = new Mat(h, w, CvType.CV_8UC3);
         mat.put(0, 0, data);
         return mat;
     }
-}
\ No newline at end of file
+
+    /** BGR Mat to a TYPE_3BYTE_BGR image with a single copy. */
+    public static BufferedImage toBufferedImage(Mat bgr) {
+        if (bgr.type() != CvType.CV_8UC3) {
+            throw new IllegalArgumentException("toBufferedImage: expected CV_8UC3, got " + CvType.typeToString(bgr.type()));
+        }
+        BufferedImage bi = new BufferedImage(bgr.cols(), bgr.rows(), BufferedImage.TYPE_3BYTE_BGR);
+        bgr.get(0, 0, ((DataBufferByte) bi.getRaster().getDataBuffer()).getData());
+        return bi;
+    }
+
+    /** True when the raster is the image's own, unshared buffer (not a getSubimage() view). */
+    private static boolean isPlainRaster(BufferedImage bi) {
+        WritableRaster raster = bi.getRaster();
+        return raster.getParent() == null
+                && raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getNumBanks() == 1
+                && raster.getDataBuffer().getOffset() == 0
+                && raster.getDataBuffer().getSize() == (long) bi.getWidth() * bi.getHeight()
+                        * (raster.getDataBuffer() instanceof DataBufferInt ? 1 : raster.getNumDataElements());
+    }
+
+    // Per-thread direct scratch for packed-int conversion, grown to the largest image seen
+    private static final ThreadLocal<ByteBuffer> PACKED_SCRATCH = new ThreadLocal<>();
+
+    private static Mat fromPackedInts(BufferedImage bi, int cvtCode) {
+        int[] pixels = ((DataBufferInt) bi.getRaster().getDataBuffer()).getData();
+        ByteBuffer direct = PACKED_SCRATCH.get();
+        if (direct == null || direct.capacity() < pixels.length * 4) {
+            direct = ByteBuffer.allocateDirect(pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            PACKED_SCRATCH.set(direct);
+        }
+        direct.clear();
+        direct.asIntBuffer().put(pixels);
+
+        // Wraps the direct buffer without copying; must be released before the buffer goes away
+        Mat packed = new Mat(bi.getHeight(), bi.getWidth(), CvType.CV_8UC4, direct);
+        try {
+            Mat bgr = new Mat();
+            Imgproc.cvtColor(packed, bgr, cvtCode);
+            return bgr;
+        } finally {
+            packed.release();
+        }
+    }
+}
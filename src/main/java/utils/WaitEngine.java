@@ -0,0 +1,161 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Polling wait for page objects: checks a condition with a growing interval (initial poll,
+ * multiplied by backoff up to max poll) and returns as soon as it holds, reporting how long it took.
+ *
+ * Defaults come from system properties:
+ *  - wait.timeout.ms      (30000, same as webdriver.wait.for.timeout)
+ *  - wait.poll.initial.ms (50)
+ *  - wait.poll.max.ms     (500)
+ *  - wait.poll.backoff    (1.5)
+ *  - wait.quiet.ms        (250, DOM/network silence required by {@link #awaitPageReady})
+ */
+public final class WaitEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitEngine.class);
+
+    private final Duration timeout;
+    private final Duration initialPoll;
+    private final Duration maxPoll;
+    private final double backoff;
+
+    public WaitEngine(Duration timeout, Duration initialPoll, Duration maxPoll, double backoff) {
+        if (timeout.isNegative() || initialPoll.isZero() || initialPoll.isNegative()
+                || maxPoll.compareTo(initialPoll) < 0 || backoff < 1.0) {
+            throw new IllegalArgumentException("Invalid wait settings: timeout=" + timeout + ", initialPoll="
+                    + initialPoll + ", maxPoll=" + maxPoll + ", backoff=" + backoff);
+        }
+        this.timeout = timeout;
+        this.initialPoll = initialPoll;
+        this.maxPoll = maxPoll;
+        this.backoff = backoff;
+    }
+
+    public static WaitEngine defaults() {
+        return new WaitEngine(
+                Duration.ofMillis(Long.getLong("wait.timeout.ms", 30000L)),
+                Duration.ofMillis(Long.getLong("wait.poll.initial.ms", 50L)),
+                Duration.ofMillis(Long.getLong("wait.poll.max.ms", 500L)),
+                Double.parseDouble(System.getProperty("wait.poll.backoff", "1.5")));
+    }
+
+    public WaitEngine withTimeout(Duration newTimeout) {
+        return new WaitEngine(newTimeout, initialPoll, maxPoll, backoff);
+    }
+
+    /**
+     * Polls until {@code condition} returns something other than null/false. Missing and stale
+     * elements count as "not yet". Throws {@link TimeoutException} once the timeout is exceeded.
+     */
+    public <T> WaitResult<T> until(String description, Supplier<T> condition) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long pollNanos = initialPoll.toNanos();
+        int polls = 0;
+        RuntimeException lastError = null;
+
+        while (true) {
+            polls++;
+            try {
+                T value = condition.get();
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    WaitResult<T> result = new WaitResult<>(description, value, System.nanoTime() - start, polls);
+                    Timings.record("wait " + description, result.elapsedNanos);
+                    logger.info("Waited {} ms for {} ({} polls)", result.elapsedMillis(), description, polls);
+                    return result;
+                }
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                Timings.record("wait " + description + " (timed out)", now - start);
+                throw new TimeoutException("Timed out after " + (now - start) / 1_000_000 + " ms waiting for "
+                        + description + " (" + polls + " polls)", lastError);
+            }
+            sleepNanos(Math.min(pollNanos, deadline - now));
+            pollNanos = Math.min(maxPoll.toNanos(), (long) (pollNanos * backoff));
+        }
+    }
+
+    // Installs (once per document) a MutationObserver plus fetch/XHR counters, then reports readiness
+    private static final String READINESS_PROBE =
+            "var quiet = arguments[0];" +
+            "var p = window.__readinessProbe;" +
+            "if (!p) {" +
+            "  p = window.__readinessProbe = {pending: 0, last: performance.now()};" +
+            "  var touch = function () { p.last = performance.now(); };" +
+            "  new MutationObserver(touch).observe(document," +
+            "      {subtree: true, childList: true, attributes: true, characterData: true});" +
+            "  if (window.fetch) {" +
+            "    var origFetch = window.fetch;" +
+            "    window.fetch = function () {" +
+            "      p.pending++; touch();" +
+            "      var done = function () { p.pending--; touch(); };" +
+            "      return origFetch.apply(this, arguments).then(" +
+            "          function (r) { done(); return r; }, function (e) { done(); throw e; });" +
+            "    };" +
+            "  }" +
+            "  var origSend = XMLHttpRequest.prototype.send;" +
+            "  XMLHttpRequest.prototype.send = function () {" +
+            "    p.pending++; touch();" +
+            "    this.addEventListener('loadend', function () { p.pending--; touch(); });" +
+            "    return origSend.apply(this, arguments);" +
+            "  };" +
+            "  return false;" +
+            "}" +
+            "return document.readyState === 'complete' && p.pending <= 0" +
+            "    && (performance.now() - p.last) >= quiet;";
+
+    /**
+     * Post-navigation readiness: document complete, no pending fetch/XHR issued through the page,
+     * and no DOM mutation for {@code wait.quiet.ms}.
+     */
+    public WaitResult<Boolean> awaitPageReady(WebDriver driver) {
+        long quietMillis = Long.getLong("wait.quiet.ms", 250L);
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        return until("page ready (quiet " + quietMillis + " ms)",
+                () -> Boolean.TRUE.equals(js.executeScript(READINESS_PROBE, quietMillis)));
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Wait interrupted", e);
+        }
+    }
+
+    /** Outcome of a successful wait. */
+    public static final class WaitResult<T> {
+        public final String description;
+        public final T value;
+        public final long elapsedNanos;
+        public final int polls;
+
+        WaitResult(String description, T value, long elapsedNanos, int polls) {
+            this.description = description;
+            this.value = value;
+            this.elapsedNanos = elapsedNanos;
+            this.polls = polls;
+        }
+
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package resources.DriverProvider;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Browser launch profile selected with -Dbrowser.profile (default | fast).
+ *
+ * "fast" runs headless at a fixed window size with device scale factor 1 (visual baselines stay
+ * comparable), without extensions, GPU, background throttling or first-run UI, and with a throwaway
+ * user-data-dir on tmpfs (/dev/shm when present), deleted when the browser quits. Images are
+ * disabled unless the current scenario is tagged @Visual. Settings:
+ *  - browser.profile     : default | fast
+ *  - browser.window.size : width,height for the fast profile (default 1920,1080)
+ */
+public final class BrowserProfile {
+
+    private static final ThreadLocal<Boolean> VISUAL_SCENARIO = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    // Profile created by applyFast on this thread and not yet tied to the browser using it
+    private static final ThreadLocal<Path> PENDING_PROFILE = new ThreadLocal<>();
+
+    private BrowserProfile() {
+    }
+
+    public static boolean fast() {
+        return "fast".equalsIgnoreCase(System.getProperty("browser.profile", "default"));
+    }
+
+    /** Set by the scenario hooks before the browser is created on this thread. */
+    public static void visualScenario(boolean visual) {
+        VISUAL_SCENARIO.set(visual);
+    }
+
+    public static boolean isVisualScenario() {
+        return VISUAL_SCENARIO.get();
+    }
+
+    /** Identifies browsers launched with the same settings (pooled browsers are only reused within one). */
+    public static String variant(String browser) {
+        if (!fast()) {
+            return browser;
+        }
+        return browser + "/fast" + (isVisualScenario() ? "" : "/no-images");
+    }
+
+    /** Fast profile for Chrome and Edge. */
+    public static void applyFast(ChromiumOptions<?> options) {
+        options.addArguments(
+                "--headless=new",
+                "--window-size=" + windowSize(),
+                "--force-device-scale-factor=1",
+                "--disable-extensions",
+                "--disable-gpu",
+                "--disable-background-timer-throttling",
+                "--disable-backgrounding-occluded-windows",
+                "--disable-renderer-backgrounding",
+                "--no-first-run",
+                "--no-default-browser-check",
+                "--user-data-dir=" + tempProfileDir());
+        if (!isVisualScenario()) {
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            options.setExperimentalOption("prefs", prefs);
+        }
+    }
+
+    /** Fast profile for Firefox. */
+    public static void applyFast(FirefoxOptions options) {
+        String[] size = windowSize().split(",");
+        options.addArguments("-headless", "--width=" + size[0].trim(), "--height=" + size[1].trim(),
+                "-profile", tempProfileDir().toString());
+        options.addPreference("layout.css.devPixelsPerPx", "1.0");
+        options.addPreference("extensions.enabledScopes", 0);
+        options.addPreference("browser.startup.homepage_override.mstone", "ignore");
+        options.addPreference("datareporting.policy.firstRunURL", "");
+        if (!isVisualScenario()) {
+            options.addPreference("permissions.default.image", 2);
+        }
+    }
+
+    private static String windowSize() {
+        return System.getProperty("browser.window.size", "1920,1080");
+    }
+
+    /**
+     * Ties the profile created for {@code driver} to it: the returned driver deletes the directory
+     * after quit(). Returns {@code driver} itself when it was launched without a temporary profile.
+     */
+    public static WebDriver deleteProfileOnQuit(WebDriver driver) {
+        Path dir = PENDING_PROFILE.get();
+        PENDING_PROFILE.remove();
+        if (dir == null) {
+            return driver;
+        }
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = driver.getClass(); c != null; c = c.getSuperclass()) {
+            Collections.addAll(interfaces, c.getInterfaces());
+        }
+        interfaces.add(WebDriver.class);
+        interfaces.add(WrapsDriver.class);
+        return (WebDriver) Proxy.newProxyInstance(BrowserProfile.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[0]), new ProfileOwner(driver, dir));
+    }
+
+    /** Deletes the profile of a launch that failed before there was a driver to own it. */
+    public static void discardPendingProfile() {
+        Path dir = PENDING_PROFILE.get();
+        PENDING_PROFILE.remove();
+        if (dir != null) {
+            deleteQuietly(dir);
+        }
+    }
+
+    private static Path tempProfileDir() {
+        discardPendingProfile();
+        Path shm = Paths.get("/dev/shm");
+        Path base = Files.isDirectory(shm) && Files.isWritable(shm)
+                ? shm : Paths.get(System.getProperty("java.io.tmpdir"));
+        try {
+            Path dir = Files.createTempDirectory(base, "orghrm-profile-");
+            PENDING_PROFILE.set(dir);
+            return dir;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create browser profile directory in " + base, e);
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException ignored) {
+            // best effort; tmpfs is cleared on reboot anyway
+        }
+    }
+
+    /** Forwards to the browser and removes its profile directory once it has quit. */
+    private static final class ProfileOwner implements InvocationHandler {
+        private final WebDriver driver;
+        private final Path dir;
+
+        ProfileOwner(WebDriver driver, Path dir) {
+            this.driver = driver;
+            this.dir = dir;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("getWrappedDriver".equals(name)) {
+                return driver;
+            }
+            try {
+                return method.invoke(driver, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if ("quit".equals(name) && method.getParameterCount() == 0) {
+                    // The browser process is gone (or unreachable); its profile is of no further use
+                    deleteQuietly(dir);
+                }
+            }
+        }
+    }
+}
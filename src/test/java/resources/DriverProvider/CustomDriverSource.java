@@ -1,6 +1,5 @@
 package resources.DriverProvider;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import net.thucydides.core.webdriver.DriverSource;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
@@ -9,9 +8,13 @@ import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CustomDriverSource implements DriverSource {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomDriverSource.class);
+
     static {
         System.setProperty("wdm.edgeDriverUrl", "https://msedgedriver.microsoft.com/");
         System.setProperty("webdriver.firefox.bin", "C://Program Files//Mozilla Firefox//firefox.exe");
@@ -26,34 +29,65 @@ public class CustomDriverSource implements DriverSource {
         System.getenv().getOrDefault("BROWSER", "chrome")
         ).toLowerCase();
 
-        System.out.println("[CustomDriverSource] browser = " + browser);
+        logger.info("browser = {}", browser);
+
+        if (DriverPool.enabled()) {
+            return DriverPool.forKey(BrowserProfile.variant(browser), () -> createDriver(browser)).lease();
+        }
+        return createDriver(browser);
+    }
+
+    private static WebDriver createDriver(String browser) {
+        long start = System.nanoTime();
+        WebDriver driver;
+        try {
+            driver = BrowserProfile.deleteProfileOnQuit(launch(browser));
+        } catch (RuntimeException e) {
+            BrowserProfile.discardPendingProfile();
+            throw e;
+        }
+        logger.info("{} started in {} ms", BrowserProfile.variant(browser), (System.nanoTime() - start) / 1_000_000);
+        return driver;
+    }
 
+    private static WebDriver launch(String browser) {
         switch (browser) {
 
             case "chrome": {
-            WebDriverManager.chromedriver().setup();
+            DriverBinaries.ensure("chrome");
 
             ChromeOptions options = new ChromeOptions();
-            options.addArguments("--start-maximized");
+            if (BrowserProfile.fast()) {
+                BrowserProfile.applyFast(options);
+            } else {
+                options.addArguments("--start-maximized");
+            }
 
             return new ChromeDriver(options);
         }
 
             case "firefox": {
-            WebDriverManager.firefoxdriver().setup();
+            DriverBinaries.ensure("firefox");
             FirefoxOptions options = new FirefoxOptions();
             options.addArguments("--remote-allow-origins=");
             options.setBinary("C://Program Files//Mozilla Firefox//firefox.exe");
+            if (BrowserProfile.fast()) {
+                BrowserProfile.applyFast(options);
+            }
 
             return new FirefoxDriver(options);
         }
 
             case "edge":
             default: {
-            WebDriverManager.edgedriver().setup();
+            DriverBinaries.ensure("edge");
 
             EdgeOptions options = new EdgeOptions();
-            options.addArguments("--start-maximized");
+            if (BrowserProfile.fast()) {
+                BrowserProfile.applyFast(options);
+            } else {
+                options.addArguments("--start-maximized");
+            }
             options.addArguments("--remote-allow-origins=");
 
             return new EdgeDriver(options);
@@ -0,0 +1,139 @@
+package resources.DriverProvider;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves each browser's driver binary once per JVM and sets the matching webdriver.*.driver property.
+ *
+ * By default WebDriverManager resolves it (version detection and cache lookup happen only on the first
+ * call per browser). With -Ddriver.offline=true the path is read from a lock file instead and nothing is
+ * detected or downloaded. Settings:
+ *  - driver.offline    : use the lock file only (default false)
+ *  - driver.lock.file  : properties file of browser=driver path (default drivers.lock)
+ *  - driver.lock.write : record resolved paths in the lock file so an offline run can reuse them
+ */
+public final class DriverBinaries {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverBinaries.class);
+
+    private static final Map<String, String> RESOLVED = new ConcurrentHashMap<>();
+
+    private DriverBinaries() {
+    }
+
+    /** Driver binary path for {@code browser} (chrome, firefox, edge), resolved on first use only. */
+    public static String ensure(String browser) {
+        return RESOLVED.computeIfAbsent(browser, DriverBinaries::resolve);
+    }
+
+    private static String resolve(String browser) {
+        long start = System.nanoTime();
+        String property = driverProperty(browser);
+        String path;
+        String source;
+
+        String preset = System.getProperty(property);
+        if (preset != null && new File(preset).isFile()) {
+            path = preset;
+            source = property;
+        } else if (Boolean.getBoolean("driver.offline")) {
+            path = fromLockFile(browser);
+            source = "lock file";
+        } else {
+            WebDriverManager manager = manager(browser);
+            manager.setup();
+            path = manager.getDownloadedDriverPath();
+            source = "WebDriverManager";
+            if (Boolean.getBoolean("driver.lock.write") && path != null) {
+                writeLockFile(browser, path);
+            }
+        }
+        if (path != null) {
+            System.setProperty(property, path);
+        }
+        logger.info("{} driver {} (from {}, {} ms)", browser, path, source, (System.nanoTime() - start) / 1_000_000);
+        return path;
+    }
+
+    private static WebDriverManager manager(String browser) {
+        switch (browser) {
+            case "chrome":
+                return WebDriverManager.chromedriver();
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            default:
+                return WebDriverManager.edgedriver();
+        }
+    }
+
+    private static String driverProperty(String browser) {
+        switch (browser) {
+            case "chrome":
+                return "webdriver.chrome.driver";
+            case "firefox":
+                return "webdriver.gecko.driver";
+            default:
+                return "webdriver.edge.driver";
+        }
+    }
+
+    private static Path lockFile() {
+        return Paths.get(System.getProperty("driver.lock.file", "drivers.lock"));
+    }
+
+    private static String fromLockFile(String browser) {
+        Path lock = lockFile();
+        Properties entries = readLockFile(lock);
+        String path = entries.getProperty(browser);
+        if (path == null || path.trim().isEmpty()) {
+            throw new IllegalStateException("driver.offline is set but " + lock.toAbsolutePath()
+                    + " has no entry for '" + browser + "'");
+        }
+        if (!new File(path.trim()).isFile()) {
+            throw new IllegalStateException("Driver from " + lock.toAbsolutePath() + " does not exist: " + path);
+        }
+        return path.trim();
+    }
+
+    private static Properties readLockFile(Path lock) {
+        Properties entries = new Properties();
+        if (Files.isRegularFile(lock)) {
+            try (InputStream in = Files.newInputStream(lock)) {
+                entries.load(in);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read driver lock file " + lock.toAbsolutePath(), e);
+            }
+        }
+        return entries;
+    }
+
+    private static synchronized void writeLockFile(String browser, String path) {
+        Path lock = lockFile();
+        Properties entries = readLockFile(lock);
+        entries.setProperty(browser, path);
+        try {
+            Path parent = lock.toAbsolutePath().getParent();
+            Path tmp = Files.createTempFile(parent, "drivers", ".lock.tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                entries.store(out, "Resolved driver binaries (browser=path), read when -Ddriver.offline=true");
+            }
+            Files.move(tmp, lock, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not write {}: {}", lock.toAbsolutePath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package resources.DriverProvider;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.PageStability;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps warm browsers between scenarios instead of launching a new process each time.
+ *
+ * Enabled with -Ddriver.pool=true. A scenario leases a browser through {@link CustomDriverSource};
+ * when Serenity quits it the browser is reset (extra tabs closed, cookies and storage cleared,
+ * about:blank) and put back. Settings:
+ *  - driver.pool.size             : browsers per pool key (default 4, the failsafe threadCount)
+ *  - driver.pool.maxUses          : leases before a browser is recycled (default 20)
+ *  - driver.pool.lease.timeout.ms : how long a lease waits for a free browser (default 120000)
+ * Idle browsers are health-checked before being handed out; all browsers are quit on JVM exit.
+ */
+public final class DriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverPool.class);
+
+    private static final Map<String, DriverPool> POOLS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> POOLS.values().forEach(DriverPool::shutdown),
+                "driver-pool-shutdown"));
+    }
+
+    private final String key;
+    private final Supplier<WebDriver> factory;
+    private final int maxUses;
+    private final long leaseTimeoutMillis;
+    private final Semaphore leases;
+    private final LinkedBlockingDeque<PooledBrowser> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledBrowser> all = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    private DriverPool(String key, Supplier<WebDriver> factory) {
+        this.key = key;
+        this.factory = factory;
+        this.maxUses = Math.max(1, Integer.getInteger("driver.pool.maxUses", 20));
+        this.leaseTimeoutMillis = Long.getLong("driver.pool.lease.timeout.ms", 120000L);
+        this.leases = new Semaphore(Math.max(1, Integer.getInteger("driver.pool.size", 4)), true);
+    }
+
+    public static boolean enabled() {
+        return Boolean.getBoolean("driver.pool");
+    }
+
+    /** The pool for a browser variant; {@code factory} launches a new browser when the pool must grow. */
+    public static DriverPool forKey(String key, Supplier<WebDriver> factory) {
+        return POOLS.computeIfAbsent(key, k -> new DriverPool(k, factory));
+    }
+
+    /** A healthy browser for one scenario. Calling quit() on it returns it to the pool. */
+    public WebDriver lease() {
+        try {
+            if (!leases.tryAcquire(leaseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No browser free in pool '" + key + "' after " + leaseTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while leasing a browser", e);
+        }
+        try {
+            PooledBrowser browser;
+            while ((browser = idle.pollFirst()) != null) {
+                if (browser.isHealthy()) {
+                    logger.info("{}: reusing browser (use {}/{})", key, browser.uses + 1, maxUses);
+                    return browser.lease();
+                }
+                logger.warn("{}: discarding unresponsive browser", key);
+                discard(browser);
+            }
+            long start = System.nanoTime();
+            browser = new PooledBrowser(factory.get());
+            all.add(browser);
+            logger.info("{}: started browser in {} ms ({} live)", key, (System.nanoTime() - start) / 1_000_000, all.size());
+            return browser.lease();
+        } catch (RuntimeException e) {
+            leases.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledBrowser browser) {
+        try {
+            if (browser.uses >= maxUses) {
+                logger.info("{}: recycling browser after {} uses", key, browser.uses);
+                discard(browser);
+            } else if (browser.reset()) {
+                idle.offerFirst(browser);
+            } else {
+                logger.warn("{}: reset failed, discarding browser", key);
+                discard(browser);
+            }
+        } finally {
+            leases.release();
+        }
+    }
+
+    private void discard(PooledBrowser browser) {
+        all.remove(browser);
+        try {
+            browser.driver.quit();
+        } catch (RuntimeException ignored) {
+            // already gone
+        }
+    }
+
+    private void shutdown() {
+        List<PooledBrowser> browsers;
+        synchronized (all) {
+            browsers = new ArrayList<>(all);
+        }
+        idle.clear();
+        browsers.forEach(this::discard);
+    }
+
+    private final class PooledBrowser implements InvocationHandler {
+        private final WebDriver driver;
+        private int uses;
+        private volatile boolean leased;
+
+        PooledBrowser(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        WebDriver lease() {
+            uses++;
+            leased = true;
+            Set<Class<?>> interfaces = new LinkedHashSet<>();
+            for (Class<?> c = driver.getClass(); c != null; c = c.getSuperclass()) {
+                Collections.addAll(interfaces, c.getInterfaces());
+            }
+            interfaces.add(WebDriver.class);
+            interfaces.add(WrapsDriver.class);
+            return (WebDriver) Proxy.newProxyInstance(DriverPool.class.getClassLoader(),
+                    interfaces.toArray(new Class<?>[0]), this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("getWrappedDriver".equals(name)) {
+                return driver;
+            }
+            if ("quit".equals(name) || ("close".equals(name) && leased && driver.getWindowHandles().size() <= 1)) {
+                // Serenity ends the scenario: hand the browser back instead of killing it
+                if (leased) {
+                    leased = false;
+                    release(this);
+                }
+                return null;
+            }
+            if (!leased && !"toString".equals(name)) {
+                throw new NoSuchSessionException("Driver was returned to the pool");
+            }
+            try {
+                return method.invoke(driver, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        boolean isHealthy() {
+            try {
+                return Long.valueOf(1L).equals(((JavascriptExecutor) driver).executeScript("return 1"));
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        /** Back to a blank state: single tab, no cookies or storage, about:blank. */
+        boolean reset() {
+            try {
+                List<String> handles = new ArrayList<>(driver.getWindowHandles());
+                for (int i = 1; i < handles.size(); i++) {
+                    driver.switchTo().window(handles.get(i));
+                    driver.close();
+                }
+                driver.switchTo().window(handles.get(0));
+
+                // Storage is per origin, so clear it before leaving the page
+                ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+                DevTools devTools = PageStability.devTools(driver);
+                if (devTools != null) {
+                    devTools.send(new Command<>("Network.clearBrowserCookies", Collections.emptyMap()));
+                } else {
+                    driver.manage().deleteAllCookies();
+                }
+                driver.get("about:blank");
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn("{}: reset error: {}", key, e.getMessage());
+                return false;
+            }
+        }
+    }
+}
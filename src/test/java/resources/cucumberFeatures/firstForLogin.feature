@@ -15,16 +15,16 @@ Feature: Login for demo site OrangeHRM
     Then user launch orange HRM site and enter creds
     Then user wait for landing page to load
 
-  @TC03 @Smoke
+  @TC03 @Smoke @Visual
   Scenario: Verify the visulization of landing page
     Given user launches Login page of demo site
-    Then user launch orange HRM site and enter creds
+    And user is logged in to orange HRM
     Then verify landing page is displayed
 
   @TC04 @Smoke
   Scenario Outline: Verify the search feature
     Given user launches Login page of demo site
-    Then user launch orange HRM site and enter creds
+    And user is logged in to orange HRM
     Then user search with "<option>"
     @Run
     Examples:
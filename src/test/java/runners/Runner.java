@@ -8,7 +8,7 @@ import org.junit.runner.RunWith;
 @CucumberOptions(
         features = "src/test/java/resources/cucumberFeatures",
         glue = {"stepDefinitions"},
-        plugin = {"pretty"},
+        plugin = {"pretty", "stepDefinitions.CurrentStep"},
         tags = "@TC03"
 //        tags = "@TC04 and @Skip"
 //        tags = "@TC04 and @Run and not @Skip"
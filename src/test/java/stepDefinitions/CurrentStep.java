@@ -0,0 +1,35 @@
+package stepDefinitions;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStepStarted;
+
+/**
+ * Cucumber plugin remembering the Gherkin step running on each thread, which hooks such as
+ * {@link Hooks#captureStep} cannot get from {@link io.cucumber.java.Scenario}. Concurrent listeners
+ * receive events on the thread executing the step, so this works for the parallel runner too.
+ *
+ * Registered in the runners' plugin list as {@code stepDefinitions.CurrentStep}.
+ */
+public class CurrentStep implements ConcurrentEventListener {
+
+    private static final ThreadLocal<String> TEXT = new ThreadLocal<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, event -> TEXT.remove());
+        publisher.registerHandlerFor(TestStepStarted.class, event -> {
+            if (event.getTestStep() instanceof PickleStepTestStep) {
+                PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+                TEXT.set(step.getStep().getKeyword().trim() + " " + step.getStep().getText());
+            }
+        });
+    }
+
+    /** Keyword and text of the current (or just finished) step on this thread, or null before the first one. */
+    public static String text() {
+        return TEXT.get();
+    }
+}
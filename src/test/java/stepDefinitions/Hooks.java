@@ -0,0 +1,83 @@
+package stepDefinitions;
+
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.AfterStep;
+import io.cucumber.java.Before;
+import io.cucumber.java.BeforeAll;
+import io.cucumber.java.Scenario;
+import net.serenitybdd.core.Serenity;
+import net.thucydides.core.webdriver.ThucydidesWebDriverSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import resources.DriverProvider.BrowserProfile;
+import utils.HashPrefilter;
+import utils.LocatorHealer;
+import utils.NativeMemory;
+import utils.OpenCVWorkers;
+import utils.OrangeHrmStandIn;
+import utils.RegionHint;
+import utils.ScreenshotCapture;
+import utils.Timings;
+
+public class Hooks {
+
+    private static final Logger logger = LoggerFactory.getLogger(Hooks.class);
+
+    @BeforeAll
+    public static void configureOpenCv() {
+        // Once per run: OpenCV's thread count is global (the parallel runner publishes visual.concurrent.tests)
+        OpenCVWorkers.configureNativeThreads();
+    }
+
+    @BeforeAll
+    public static void startStandIn() {
+        // -Dorangehrm.standin=true: scenarios open the local recorded site instead of webdriver.base.url
+        if (OrangeHrmStandIn.enabled()) {
+            OrangeHrmStandIn.start();
+        }
+    }
+
+    @Before(order = 0)
+    public void recordScenarioProfile(Scenario scenario) {
+        // Read when the browser is launched for this scenario (fast profile keeps images only for @Visual)
+        BrowserProfile.visualScenario(scenario.getSourceTagNames().contains("@Visual"));
+    }
+
+    @AfterStep
+    public void captureStep(Scenario scenario) {
+        // Replaces Serenity's per-step captures (serenity.take.screenshots=FOR_FAILURES); see capture.policy
+        if (!ThucydidesWebDriverSupport.isDriverInstantiated()) {
+            return;
+        }
+        String step = CurrentStep.text();
+        String name = step == null ? scenario.getName() : scenario.getName() + " " + step;
+        try {
+            ScreenshotCapture.Frame frame =
+                    ScreenshotCapture.afterStep(ThucydidesWebDriverSupport.getDriver(), name, scenario.isFailed());
+            if (frame != null) {
+                scenario.attach(frame.png, "image/png", frame.name);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Step screenshot skipped: {}", e.getMessage());
+        }
+    }
+
+    @After(order = 0)
+    public void reportNativeMemory(Scenario scenario) {
+        String summary = NativeMemory.summary();
+        logger.info("Native OpenCV memory after '{}':\n{}", scenario.getName(), summary);
+        logger.info("Screenshots: {}", ScreenshotCapture.summary());
+        logger.info(HashPrefilter.summary());
+        logger.info(RegionHint.summary());
+        logger.info(LocatorHealer.summary());
+        Serenity.recordReportData().withTitle("Native OpenCV memory").andContents(summary);
+    }
+
+    @AfterAll
+    public static void exportTimings() {
+        // Also written by a shutdown hook; exporting here puts the files next to the Serenity report
+        logger.info("Step timings:\n{}", Timings.summary());
+        Timings.export();
+    }
+}
@@ -2,32 +2,41 @@ package stepDefinitions;
 
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
-import pageObjects.InvokeColumns;
+import pageObjects.ExcelDataProvider;
 import pageObjects.LoginPage;
+import utils.OrangeHrmStandIn;
 
 import java.io.IOException;
-import java.util.List;
 
 public class LoginPageStepDefinitions {
 
     LoginPage loginPage;
-    InvokeColumns invokeColumns = new InvokeColumns();
     @Given("user launches Login page of demo site")
     public void user_launches_login_page_of_demo_site() throws InterruptedException {
-        loginPage.open();
+        if (OrangeHrmStandIn.enabled()) {
+            loginPage.openUrl(OrangeHrmStandIn.start().baseUrl() + OrangeHrmStandIn.LOGIN_PATH);
+        } else {
+            loginPage.open();
+        }
 // loginPage.setSizeAndCenter(768,1024, LoginPage.CenterMode.PRIMARY, 1.25);
     }
 
     @Given("user launch orange HRM site and enter creds")
     public void user_launch_orange_hrm_site_and_enter_creds() throws InterruptedException, IOException {
         String filepath ="src/test/ExcelData/UserInputs.xlsx";
-        List<String> usernames = invokeColumns.getColumnDataByTitle(filepath, "Creds", "Username");
-        List<String> passwords = invokeColumns.getColumnDataByTitle(filepath, "Creds", "Password");
-        loginPage.enterTheUsername(usernames.get(0));
-        loginPage.enterThePassword(passwords.get(0));
+        ExcelDataProvider.DataRow creds = ExcelDataProvider.sheet(filepath, "Creds").row(0);
+        loginPage.enterTheUsername(creds.getString("Username"));
+        loginPage.enterThePassword(creds.getString("Password"));
         loginPage.clickOnTheLoginButton();
     }
 
+    @Given("user is logged in to orange HRM")
+    public void user_is_logged_in_to_orange_hrm() throws InterruptedException, IOException {
+        String filepath ="src/test/ExcelData/UserInputs.xlsx";
+        ExcelDataProvider.DataRow creds = ExcelDataProvider.sheet(filepath, "Creds").row(0);
+        loginPage.loginWithCachedSession(creds.getString("Username"), creds.getString("Password"));
+    }
+
     @Then("user wait for landing page to load")
     public void user_wait_for_landing_page_to_load() {
 
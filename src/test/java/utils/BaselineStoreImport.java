@@ -0,0 +1,31 @@
+package utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Imports the loose baselines (WebElements and images) into the {@link BaselineStore} for one
+ * browser/viewport/DPR, e.g. to seed the store from the PNGs recorded so far. Re-running it for
+ * other contexts adds index entries only; identical images are stored once.
+ *
+ * Run: java -cp target/classes:target/test-classes:{deps} utils.BaselineStoreImport [browser] [WxH] [dpr]
+ */
+public class BaselineStoreImport {
+
+    private static final String[] LEGACY_DIRS = {"src/main/resources/WebElements", "src/main/resources/images"};
+
+    public static void main(String[] args) throws Exception {
+        String browser = args.length > 0 ? args[0] : "chrome";
+        String[] viewport = (args.length > 1 ? args[1] : "1920x1080").split("x");
+        double dpr = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        BaselineStore.Context context = new BaselineStore.Context(browser,
+                Integer.parseInt(viewport[0]), Integer.parseInt(viewport[1]), dpr);
+        BaselineStore store = BaselineStore.shared();
+        for (String dir : LEGACY_DIRS) {
+            Path path = Paths.get(dir);
+            System.out.println("Imported " + store.importLegacy(path, context) + " baselines from " + path);
+        }
+        System.out.println(store.summary());
+    }
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+/**
+ * Harness comparing the resolver payload built from the full page (the old jsonSafeHTML
+ * string-replace chain) with one built from {@link HtmlCompactor} output, on the recorded login page
+ * and on a page of 20 login pages (large enough to show scaling).
+ *
+ * Run: java -cp target/classes:target/test-classes:{deps} utils.HtmlCompactorBenchmark [iterations]
+ */
+public class HtmlCompactorBenchmark {
+
+    private static final int WARMUP = 200;
+    private static final String BROKEN_XPATH = "//input[@class='username']";
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            big.append(OrangeHrmSnapshots.LOGIN_PAGE);
+        }
+
+        System.out.printf("%-12s %-16s %12s %12s %10s%n", "page", "payload", "html chars", "json chars", "mean ms");
+        run("login", OrangeHrmSnapshots.LOGIN_PAGE, iterations);
+        run("login x20", big.toString(), Math.max(1, iterations / 20));
+
+        HtmlCompactor.Result result = HtmlCompactor.compact(OrangeHrmSnapshots.LOGIN_PAGE);
+        System.out.println();
+        System.out.println(result.summary());
+        System.out.println(result.html);
+    }
+
+    private static void run(String label, String html, int iterations) {
+        for (int i = 0; i < WARMUP; i++) {
+            jsonSafe(html);
+            compacted(html);
+        }
+        long start = System.nanoTime();
+        int jsonChars = 0;
+        for (int i = 0; i < iterations; i++) {
+            jsonChars = jsonSafe(html).length();
+        }
+        double jsonSafeMs = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+
+        start = System.nanoTime();
+        int compactChars = 0;
+        for (int i = 0; i < iterations; i++) {
+            compactChars = compacted(html).length();
+        }
+        double compactMs = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+
+        System.out.printf(Locale.ROOT, "%-12s %-16s %12d %12d %10.3f%n", label, "jsonSafeHTML", html.length(), jsonChars, jsonSafeMs);
+        System.out.printf(Locale.ROOT, "%-12s %-16s %12d %12d %10.3f%n", label, "HtmlCompactor",
+                HtmlCompactor.compact(html).outputChars, compactChars, compactMs);
+    }
+
+    // What XPathCorrector used to send
+    private static String jsonSafe(String html) {
+        String jsonSafeHTML = html
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+        return payload(jsonSafeHTML);
+    }
+
+    private static String compacted(String html) {
+        return payload(HtmlCompactor.compact(html).html);
+    }
+
+    private static String payload(String html) {
+        JSONObject payload = new JSONObject();
+        payload.put("input", "Broken XPath:\n" + BROKEN_XPATH + "\n\nHTML Page Source:\n" + html);
+        return payload.toString();
+    }
+}
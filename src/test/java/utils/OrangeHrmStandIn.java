@@ -0,0 +1,260 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-JVM stand-in for the OrangeHRM demo site serving the recorded pages in {@link OrangeHrmSnapshots},
+ * so login flows and visual checks run without the network and with repeatable timings.
+ *
+ * Routes:
+ *  - /                                  : redirect to the login page
+ *  - /web/index.php/auth/login          : recorded login page
+ *  - /web/index.php/auth/validate (POST): Admin/admin123 sets the session cookie and redirects to the
+ *                                         dashboard, anything else back to the login page
+ *  - /web/index.php/auth/logout         : drops the session
+ *  - /web/index.php/dashboard/index     : dashboard with side-menu search (login required)
+ *  - /standin/{images|WebElements}/...  : recorded images from src/main/resources
+ *  - /web/dist/...                      : empty assets referenced by the recorded login page
+ *
+ * Settings (pass as -D):
+ *  - orangehrm.standin      : true to start it from Hooks and open it instead of webdriver.base.url
+ *  - standin.port           : default 8089, 0 picks a free port
+ *  - standin.latency.ms     : delay before every response (default 0)
+ *  - standin.bytesPerSecond : response body throughput limit per request (default 0 = unlimited)
+ *
+ * Run standalone: java -cp target/test-classes:{deps} utils.OrangeHrmStandIn
+ */
+public final class OrangeHrmStandIn {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrangeHrmStandIn.class);
+
+    public static final String LOGIN_PATH = "/web/index.php/auth/login";
+    public static final String DASHBOARD_PATH = "/web/index.php/dashboard/index";
+
+    private static final String USERNAME = "Admin";
+    private static final String PASSWORD = "admin123";
+    private static final String SESSION_COOKIE = "orangehrm";
+    private static final Path RESOURCES = Paths.get("src/main/resources");
+    private static final int CHUNK = 4096;
+
+    private static OrangeHrmStandIn running;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final long latencyMs;
+    private final long bytesPerSecond;
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private OrangeHrmStandIn(int port, long latencyMs, long bytesPerSecond) throws IOException {
+        this.latencyMs = latencyMs;
+        this.bytesPerSecond = bytesPerSecond;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "orangehrm-standin");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(workers);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("orangehrm.standin", "false"));
+    }
+
+    /** Starts the shared instance on first use, configured from system properties. */
+    public static synchronized OrangeHrmStandIn start() {
+        if (running == null) {
+            try {
+                running = new OrangeHrmStandIn(Integer.getInteger("standin.port", 8089),
+                        Long.getLong("standin.latency.ms", 0L), Long.getLong("standin.bytesPerSecond", 0L));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not start OrangeHRM stand-in: " + e.getMessage(), e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(OrangeHrmStandIn::stop, "orangehrm-standin-stop"));
+            logger.info("OrangeHRM stand-in at {} (latency {} ms, {})", running.baseUrl(), running.latencyMs,
+                    running.bytesPerSecond > 0 ? running.bytesPerSecond + " B/s" : "unthrottled");
+        }
+        return running;
+    }
+
+    public static synchronized void stop() {
+        if (running != null) {
+            running.server.stop(0);
+            running.workers.shutdownNow();
+            logger.info(running.summary());
+            running = null;
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String summary() {
+        return String.format("requests=%d bytes=%d sessions=%d", requests.get(), bytesSent.get(), sessions.size());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/") || path.equals("/web/index.php") || path.equals("/web/index.php/")) {
+                redirect(exchange, LOGIN_PATH);
+            } else if (path.equals(LOGIN_PATH)) {
+                send(exchange, 200, "text/html; charset=UTF-8", OrangeHrmSnapshots.LOGIN_PAGE.getBytes(StandardCharsets.UTF_8));
+            } else if (path.equals("/web/index.php/auth/validate") && "POST".equals(exchange.getRequestMethod())) {
+                validate(exchange);
+            } else if (path.equals("/web/index.php/auth/logout")) {
+                String session = session(exchange);
+                if (session != null) sessions.remove(session);
+                redirect(exchange, LOGIN_PATH);
+            } else if (path.equals(DASHBOARD_PATH)) {
+                if (session(exchange) == null) {
+                    redirect(exchange, LOGIN_PATH);
+                } else {
+                    send(exchange, 200, "text/html; charset=UTF-8", OrangeHrmSnapshots.DASHBOARD_PAGE.getBytes(StandardCharsets.UTF_8));
+                }
+            } else if (path.startsWith("/standin/images/") || path.startsWith("/standin/WebElements/")) {
+                resource(exchange, path.substring("/standin/".length()));
+            } else if (path.startsWith("/web/dist/")) {
+                send(exchange, 200, contentType(path), new byte[0]);
+            } else {
+                send(exchange, 404, "text/plain", ("Not recorded: " + path).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void validate(HttpExchange exchange) throws IOException, InterruptedException {
+        Map<String, String> form = parseForm(new String(readAll(exchange), StandardCharsets.UTF_8));
+        if (USERNAME.equals(form.get("username")) && PASSWORD.equals(form.get("password"))) {
+            String session = UUID.randomUUID().toString().replace("-", "");
+            sessions.add(session);
+            exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/; HttpOnly");
+            redirect(exchange, DASHBOARD_PATH);
+        } else {
+            redirect(exchange, LOGIN_PATH);
+        }
+    }
+
+    /** The request's session id when it is one this server issued, else null. */
+    private String session(HttpExchange exchange) {
+        for (String header : exchange.getRequestHeaders().getOrDefault("Cookie", Collections.emptyList())) {
+            for (String cookie : header.split(";")) {
+                String[] kv = cookie.trim().split("=", 2);
+                if (kv.length == 2 && kv[0].equals(SESSION_COOKIE) && sessions.contains(kv[1])) {
+                    return kv[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    private void resource(HttpExchange exchange, String relative) throws IOException, InterruptedException {
+        Path file = RESOURCES.resolve(relative).normalize();
+        if (!file.startsWith(RESOURCES) || !Files.isRegularFile(file)) {
+            send(exchange, 404, "text/plain", ("Not recorded: " + relative).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        send(exchange, 200, contentType(relative), Files.readAllBytes(file));
+    }
+
+    private void redirect(HttpExchange exchange, String location) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().add("Location", location);
+        send(exchange, 302, "text/plain", new byte[0]);
+    }
+
+    /** Writes the response after the configured latency, pacing the body to the configured throughput. */
+    private void send(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException, InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int off = 0; off < body.length; off += CHUNK) {
+                int len = Math.min(CHUNK, body.length - off);
+                out.write(body, off, len);
+                if (bytesPerSecond > 0) {
+                    out.flush();
+                    long due = start + (off + len) * 1_000_000_000L / bytesPerSecond;
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                    }
+                }
+            }
+        }
+        bytesSent.addAndGet(body.length);
+    }
+
+    private static byte[] readAll(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[CHUNK];
+        int n;
+        while ((n = exchange.getRequestBody().read(chunk)) > 0) {
+            buf.write(chunk, 0, n);
+        }
+        return buf.toByteArray();
+    }
+
+    private static Map<String, String> parseForm(String body) throws IOException {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            String[] kv = pair.split("=", 2);
+            if (kv.length == 2) {
+                form.put(URLDecoder.decode(kv[0], "UTF-8"), URLDecoder.decode(kv[1], "UTF-8"));
+            }
+        }
+        return form;
+    }
+
+    private static String contentType(String path) {
+        if (path.contains(".png")) return "image/png";
+        if (path.contains(".css")) return "text/css";
+        if (path.contains(".js")) return "application/javascript";
+        if (path.contains(".ico")) return "image/x-icon";
+        return "application/octet-stream";
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        OrangeHrmStandIn standIn = start();
+        System.out.println("Open " + standIn.baseUrl() + LOGIN_PATH + " (Ctrl+C to stop)");
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,104 @@
+package utils;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LocatorResolver} asking an OpenAI model for a replacement XPath. Only reached when the
+ * cache and the local heuristic of {@link LocatorHealer} have nothing, so it costs one round-trip
+ * per broken locator rather than one per lookup.
+ *
+ * Select with -Dlocator.resolver.class=utils.RemoteLocatorResolver. Needs OPENAI_API_KEY in the
+ * environment; the model is locator.resolver.model (default gpt-5-nano).
+ */
+public class RemoteLocatorResolver implements LocatorResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteLocatorResolver.class);
+
+    private static final String ENDPOINT = "https://api.openai.com/v1/responses";
+
+    private final String apiKey;
+    private final String model;
+
+    public RemoteLocatorResolver() {
+        this(System.getenv("OPENAI_API_KEY"), System.getProperty("locator.resolver.model", "gpt-5-nano"));
+    }
+
+    public RemoteLocatorResolver(String apiKey, String model) {
+        this.apiKey = apiKey;
+        this.model = model;
+    }
+
+    @Override
+    public String resolve(String page, String brokenXPath, String pageSource) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            logger.warn("OPENAI_API_KEY not set; remote resolver skipped");
+            return null;
+        }
+        Response response = RestAssured
+                .given()
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .body(payload(brokenXPath, pageSource).toString())
+                .post(ENDPOINT);
+        if (response.getStatusCode() != 200) {
+            logger.warn("Remote resolver returned HTTP {} for {}", response.getStatusCode(), brokenXPath);
+            return null;
+        }
+        String xpath = extractCorrectedXPath(response.asString());
+        return xpath.isEmpty() ? null : xpath;
+    }
+
+    JSONObject payload(String brokenXPath, String pageSource) {
+        // Only controls, text and their structure; JSONObject does the escaping
+        HtmlCompactor.Result compacted = HtmlCompactor.compact(pageSource);
+        logger.info(compacted.summary());
+
+        JSONObject payload = new JSONObject();
+        payload.put("model", model);
+        payload.put("input",
+                "You are a senior Selenium automation expert.\n\n" +
+                        "Broken XPath:\n" + brokenXPath + "\n\n" +
+                        "HTML Page Source:\n" + compacted.html + "\n\n" +
+                        "Rules:\n- Identify the intended element\n" +
+                        "- Generate the most stable XPath\n" +
+                        "- Return ONLY a valid XPath\n" +
+                        "- No explanation");
+        payload.put("store", false);
+        return payload;
+    }
+
+    static String extractCorrectedXPath(String jsonResponse) {
+        JSONObject json = new JSONObject(jsonResponse);
+        String correctedXpath = "";
+
+        if (json.has("output")) {
+            JSONArray outputArray = json.getJSONArray("output");
+
+            for (int i = 0; i < outputArray.length(); i++) {
+                JSONObject item = outputArray.getJSONObject(i);
+
+                if (item.has("type") && item.getString("type").equals("message")
+                        && item.has("content")) {
+
+                    JSONArray contentArray = item.getJSONArray("content");
+
+                    for (int j = 0; j < contentArray.length(); j++) {
+                        JSONObject contentItem = contentArray.getJSONObject(j);
+
+                        if (contentItem.has("type") && contentItem.getString("type").equals("output_text")
+                                && contentItem.has("text")) {
+                            correctedXpath = contentItem.getString("text").trim();
+                        }
+                    }
+                }
+            }
+        }
+
+        return correctedXpath;
+    }
+}
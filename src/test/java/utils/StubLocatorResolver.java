@@ -0,0 +1,43 @@
+package utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline {@link LocatorResolver} answering from fixed mappings, for runs that must not call out
+ * (e.g. against {@link OrangeHrmStandIn}). Mappings come from {@link #register} or from
+ * -Dlocator.stub.mappings="brokenXPath=>replacement;..."; unknown XPaths get no suggestion.
+ *
+ * Select with -Dlocator.resolver.class=utils.StubLocatorResolver.
+ */
+public class StubLocatorResolver implements LocatorResolver {
+
+    private static final Map<String, String> MAPPINGS = new ConcurrentHashMap<>();
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
+    public StubLocatorResolver() {
+        String configured = System.getProperty("locator.stub.mappings", "");
+        for (String entry : configured.split(";")) {
+            String[] pair = entry.split("=>", 2);
+            if (pair.length == 2) {
+                MAPPINGS.putIfAbsent(pair[0].trim(), pair[1].trim());
+            }
+        }
+    }
+
+    public static void register(String brokenXPath, String replacement) {
+        MAPPINGS.put(brokenXPath, replacement);
+    }
+
+    /** How often a resolver was asked, i.e. how many lookups the cache and heuristic could not serve. */
+    public static int calls() {
+        return CALLS.get();
+    }
+
+    @Override
+    public String resolve(String page, String brokenXPath, String pageSource) {
+        CALLS.incrementAndGet();
+        return MAPPINGS.get(brokenXPath);
+    }
+}
@@ -0,0 +1,63 @@
+package utils;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Harness comparing the exhaustive multi-scale loop with the coarse-to-fine and parallel searches
+ * on the bundled landing page and WebElements baselines.
+ *
+ * Run: java -cp target/classes:target/test-classes:{deps} utils.TemplateMatchBenchmark [iterations]
+ */
+public class TemplateMatchBenchmark {
+
+    private static final String HAYSTACK = "src/main/resources/images/landing_page.png";
+    private static final String NEEDLES = "src/main/resources/WebElements";
+    private static final int WARMUP = 3;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        nu.pattern.OpenCV.loadLocally();
+
+        Mat haystack = Imgcodecs.imread(HAYSTACK);
+        if (haystack.empty()) {
+            throw new RuntimeException("[ERROR] Haystack not loaded: " + HAYSTACK);
+        }
+        File[] needles = new File(NEEDLES).listFiles((dir, name) -> name.endsWith(".png"));
+        if (needles == null || needles.length == 0) {
+            throw new RuntimeException("[ERROR] No baselines found in " + NEEDLES);
+        }
+        Arrays.sort(needles);
+
+        System.out.println("Haystack: " + HAYSTACK + " " + haystack.size() + ", iterations=" + iterations);
+        System.out.printf("%-22s %-20s %10s %10s  %s%n", "needle", "mode", "mean ms", "score", "location");
+
+        for (File needle : needles) {
+            String path = needle.getPath();
+            run(haystack, path, VisualAssert.SearchMode.EXHAUSTIVE, Double.MAX_VALUE, iterations);
+            run(haystack, path, VisualAssert.SearchMode.COARSE_TO_FINE, Double.MAX_VALUE, iterations);
+            run(haystack, path, VisualAssert.SearchMode.COARSE_TO_FINE, 0.85, iterations);
+            run(haystack, path, VisualAssert.SearchMode.PARALLEL, Double.MAX_VALUE, iterations);
+        }
+    }
+
+    private static void run(Mat haystack, String path, VisualAssert.SearchMode mode,
+                            double threshold, int iterations) {
+        VisualAssert.TemplateResult tr = null;
+        for (int i = 0; i < WARMUP; i++) {
+            tr = VisualAssert.matchTemplate(haystack, path, mode, threshold);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            tr = VisualAssert.matchTemplate(haystack, path, mode, threshold);
+        }
+        double meanMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+        String label = threshold == Double.MAX_VALUE ? mode.name() : mode.name() + "@" + threshold;
+        System.out.printf("%-22s %-20s %10.2f %10.4f  %s%n",
+                new File(path).getName(), label, meanMs, tr.score, tr.location);
+    }
+}
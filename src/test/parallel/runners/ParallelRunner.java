@@ -0,0 +1,39 @@
+package runners;
+
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectDirectories;
+import org.junit.platform.suite.api.Suite;
+
+import static io.cucumber.junit.platform.engine.Constants.EXECUTION_MODE_FEATURE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PARALLEL_CONFIG_CUSTOM_CLASS_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PARALLEL_CONFIG_STRATEGY_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PARALLEL_EXECUTION_ENABLED_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+
+/**
+ * Runs features concurrently on the cucumber JUnit Platform engine (mvn verify -P serenity-parallel).
+ * Tags come from -Dcucumber.filter.tags (the profile defaults to @Smoke); worker count from
+ * {@link WorkerCountStrategy}.
+ *
+ * Scenarios of one feature run one after another on the same worker: the SerenityReporter of
+ * serenity-cucumber 3.6 keeps one report context per feature, so concurrent scenarios of the same
+ * feature would be written into each other's results. Split large features to spread them over workers.
+ *
+ * Thread confinement: each scenario runs entirely on one worker thread. Serenity keeps one driver
+ * per thread, and cucumber creates new step definition (and so LoginPage) instances per scenario,
+ * so neither is shared. Shared state is limited to thread-safe caches (ExcelDataProvider,
+ * TemplateCache, DriverPool, DriverBinaries); per-scenario data (BrowserProfile) is thread-local.
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectDirectories("src/test/java/resources/cucumberFeatures")
+@ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "stepDefinitions")
+@ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, value = "pretty,io.cucumber.core.plugin.SerenityReporter,stepDefinitions.CurrentStep")
+@ConfigurationParameter(key = PARALLEL_EXECUTION_ENABLED_PROPERTY_NAME, value = "true")
+@ConfigurationParameter(key = PARALLEL_CONFIG_STRATEGY_PROPERTY_NAME, value = "custom")
+@ConfigurationParameter(key = PARALLEL_CONFIG_CUSTOM_CLASS_PROPERTY_NAME, value = "runners.WorkerCountStrategy")
+@ConfigurationParameter(key = EXECUTION_MODE_FEATURE_PROPERTY_NAME, value = "same_thread")
+public class ParallelRunner {
+}
@@ -0,0 +1,94 @@
+package runners;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Sizes the worker pool for {@link ParallelRunner} from the agent: one browser per worker,
+ * bounded by the cores and by the free physical memory a browser needs.
+ *
+ *  - parallel.workers           : explicit worker count (overrides the calculation)
+ *  - parallel.browser.memory.mb : memory reserved per browser (default 700)
+ *  - parallel.workers.max       : upper bound for the calculated count (default 8)
+ *
+ * The count is also published as visual.concurrent.tests and driver.pool.size (unless already set),
+ * so the OpenCV worker pool and the browser pool are sized for the same number of scenarios.
+ */
+public class WorkerCountStrategy implements ParallelExecutionConfigurationStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerCountStrategy.class);
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters parameters) {
+        String explicit = parameters.get("parallel.workers").orElse(System.getProperty("parallel.workers"));
+        int workers = explicit != null && !explicit.trim().isEmpty()
+                ? Integer.parseInt(explicit.trim()) : fromResources();
+        workers = Math.max(1, workers);
+
+        if (System.getProperty("visual.concurrent.tests") == null) {
+            System.setProperty("visual.concurrent.tests", String.valueOf(workers));
+        }
+        if (System.getProperty("driver.pool.size") == null) {
+            System.setProperty("driver.pool.size", String.valueOf(workers));
+        }
+        logger.info("Running scenarios on {} workers", workers);
+        return new FixedWorkers(workers);
+    }
+
+    static int fromResources() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long perBrowserMb = Long.getLong("parallel.browser.memory.mb", 700L);
+        int max = Integer.getInteger("parallel.workers.max", 8);
+
+        int byMemory = Integer.MAX_VALUE;
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            long freeMb = ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / (1024 * 1024);
+            byMemory = (int) Math.max(1, freeMb / Math.max(1, perBrowserMb));
+        }
+        int workers = Math.max(1, Math.min(max, Math.min(cores, byMemory)));
+        logger.info("cores={}, workers by memory={} -> {}", cores,
+                byMemory == Integer.MAX_VALUE ? "n/a" : String.valueOf(byMemory), workers);
+        return workers;
+    }
+
+    /** Exactly {@code workers} threads: no extra compensation threads while scenarios block on the browser. */
+    private static final class FixedWorkers implements ParallelExecutionConfiguration {
+        private final int workers;
+
+        FixedWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        @Override
+        public int getParallelism() {
+            return workers;
+        }
+
+        @Override
+        public int getMinimumRunnable() {
+            return workers;
+        }
+
+        @Override
+        public int getMaxPoolSize() {
+            return workers;
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return workers;
+        }
+
+        @Override
+        public int getKeepAliveSeconds() {
+            return 30;
+        }
+    }
+}